@@ -34,6 +34,7 @@ android {
 }
 
 dependencies {
+    implementation(project(":geo-core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
@@ -0,0 +1,58 @@
+package com.example.gps_tracker;
+
+import android.util.TypedValue;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+import com.example.gps_tracker.track.DecimalFormatter;
+import com.example.gps_tracker.track.TrackBuffer;
+import com.example.gps_tracker.track.TrackCsv;
+
+/**
+ * Shows the points of a track as CSV rows. Rows are read straight from the track and formatted
+ * only when they scroll into view, so the cost of an update does not depend on the length of
+ * the track. Call {@link #notifyDataSetChanged()} after points were added.
+ */
+public class CsvRowAdapter extends BaseAdapter {
+
+    private final TrackBuffer track;
+    private final DecimalFormatter row = new DecimalFormatter();
+
+    public CsvRowAdapter(TrackBuffer track) {
+        this.track = track;
+    }
+
+    @Override
+    public int getCount() {
+        return track.size();
+    }
+
+    @Override
+    public Object getItem(int position) {
+        return TrackCsv.formatRow(track, position, row).toString();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        TextView view = (TextView) convertView;
+        if (view == null) {
+            view = new TextView(parent.getContext());
+            view.setTextSize(TypedValue.COMPLEX_UNIT_SP, 12);
+            view.setSingleLine(true);
+        }
+        view.setText(TrackCsv.formatRow(track, position, row));
+        return view;
+    }
+}
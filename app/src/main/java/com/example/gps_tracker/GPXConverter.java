@@ -7,120 +7,187 @@ import android.os.Environment;
 import android.provider.MediaStore;
 import android.util.Log;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
+import com.example.gps_tracker.track.CsvWriter;
+import com.example.gps_tracker.track.GeoJsonWriter;
+import com.example.gps_tracker.track.GpxExportCache;
+import com.example.gps_tracker.track.GpxWriter;
+import com.example.gps_tracker.track.KmlWriter;
+import com.example.gps_tracker.track.PolylineWriter;
+import com.example.gps_tracker.track.TrackBuffer;
+import com.example.gps_tracker.track.TrackExport;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.text.SimpleDateFormat;
-import java.util.Arrays;
 import java.util.Date;
 import java.util.Locale;
-import java.util.TimeZone;
 
 public class GPXConverter {
 
     private static final String TAG = "GPXConverter";
 
-    public static void convertAndDownloadGPXFromCSV(Context context) throws IOException {
-        File csvFile = new File(context.getFilesDir(), "gps_data.csv");
-        Log.d(TAG, "Attempting to read from: " + csvFile.getAbsolutePath());
+    /**
+     * Saves the track as GPX. Points that were exported before from the track of the same
+     * session are taken from {@code cache} instead of being encoded again.
+     */
+    public static void convertAndDownloadGPX(Context context, TrackBuffer track, GpxExportCache cache,
+                                             long sessionId) throws IOException {
+        if (track.isEmpty()) {
+            Log.w(TAG, "Track is empty.");
+            return;
+        }
+        Log.d(TAG, "Exporting track with " + track.size() + " points.");
+
+        saveToDownloads(context, track, ".gpx", "application/gpx+xml",
+                (points, out) -> cache.write(sessionId, points, out));
+        Log.d(TAG, "Reused " + cache.getReusedCount() + " encoded points.");
+    }
 
-        if (!csvFile.exists()) {
-            Log.e(TAG, "CSV file does not exist.");
+    /**
+     * Saves the track in the compact polyline format, see {@code TrackPolyline}, for sharing.
+     */
+    public static void convertAndDownloadPolyline(Context context, TrackBuffer track) throws IOException {
+        if (track.isEmpty()) {
+            Log.w(TAG, "Track is empty.");
             return;
         }
-        if (csvFile.length() == 0) {
-            Log.w(TAG, "CSV file is empty.");
+        Log.d(TAG, "Exporting polyline with " + track.size() + " points.");
+
+        saveToDownloads(context, track, ".polyline", "text/plain", PolylineWriter::write);
+    }
+
+    private interface Encoder {
+        int write(TrackBuffer track, OutputStream out) throws IOException;
+    }
+
+    /**
+     * Saves the track as GPX, GeoJSON, KML and CSV. The four files are encoded together in a
+     * single pass over the track. They stay pending, hidden from other apps, until all four
+     * are complete, and are removed again if any of them fails.
+     */
+    public static void convertAndDownloadAll(Context context, TrackBuffer track) throws IOException {
+        if (track.isEmpty()) {
+            Log.w(TAG, "Track is empty.");
             return;
         }
-        Log.d(TAG, "CSV file found with size: " + csvFile.length() + " bytes.");
-
-        StringBuilder gpxContent = new StringBuilder();
-        gpxContent.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\" ?>\n");
-        gpxContent.append("<gpx version=\"1.1\" creator=\"GPS-Tracker\">\n");
-        gpxContent.append("  <trk>\n");
-        gpxContent.append("    <name>Track</name>\n");
-        gpxContent.append("    <trkseg>\n");
-
-        int linesRead = 0;
-        int pointsAdded = 0;
-        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
-            String line;
-            // Skip header
-            String header = reader.readLine();
-            Log.d(TAG, "Skipped header line: " + header);
-
-            while ((line = reader.readLine()) != null) {
-                linesRead++;
-                Log.d(TAG, "Read line (" + linesRead + "): " + line);
-
-                String[] parts = line.split(",");
-                if (parts.length >= 4) {
-                    pointsAdded++;
-                    Log.d(TAG, "Line " + linesRead + " parsed into " + parts.length + " parts: " + Arrays.toString(parts));
-                    gpxContent.append("      <trkpt lat=\"").append(parts[1]).append("\" lon=\"").append(parts[2]).append("\">\n");
-                    gpxContent.append("        <ele>").append(parts[3]).append("</ele>\n");
-                    try {
-                        long time = Long.parseLong(parts[0]);
-                        Date date = new Date(time);
-                        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
-                        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-                        String formattedTime = sdf.format(date);
-                        gpxContent.append("        <time>").append(formattedTime).append("</time>\n");
-                    } catch (NumberFormatException e) {
-                        Log.e(TAG, "Error parsing timestamp on line " + linesRead, e);
-                        gpxContent.append("        <time>").append(parts[0]).append("</time>\n");
-                    }
-                    gpxContent.append("      </trkpt>\n");
-                } else {
-                    Log.w(TAG, "Skipping malformed line " + linesRead + " (only " + parts.length + " parts): " + line);
-                }
+        Log.d(TAG, "Exporting track with " + track.size() + " points in all formats.");
+
+        String name = fileName();
+        Uri[] uris = new Uri[4];
+        boolean published = false;
+        try {
+            uris[0] = insertPendingDownload(context, name + ".gpx", "application/gpx+xml");
+            uris[1] = insertPendingDownload(context, name + ".geojson", "application/geo+json");
+            uris[2] = insertPendingDownload(context, name + ".kml", "application/vnd.google-earth.kml+xml");
+            uris[3] = insertPendingDownload(context, name + ".csv", "text/csv");
+            try (OutputStream gpx = openDownload(context, uris[0]);
+                 OutputStream geoJson = openDownload(context, uris[1]);
+                 OutputStream kml = openDownload(context, uris[2]);
+                 OutputStream csv = openDownload(context, uris[3])) {
+                int pointsAdded = TrackExport.write(track, "Track", new GpxWriter(gpx), new GeoJsonWriter(geoJson),
+                        new KmlWriter(kml), new CsvWriter(csv));
+                Log.d(TAG, "Successfully wrote all formats. Track points added: " + pointsAdded);
+            }
+            publishDownloads(context, uris);
+            published = true;
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing export files.", e);
+            throw e;
+        } finally {
+            if (!published) {
+                deleteDownloads(context, uris);
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error while reading CSV file", e);
         }
+    }
 
-        gpxContent.append("    </trkseg>\n");
-        gpxContent.append("  </trk>\n");
-        gpxContent.append("</gpx>\n");
-
-        Log.d(TAG, "Finished processing CSV. Total lines read (excluding header): " + linesRead + ". Track points added: " + pointsAdded);
-        if (pointsAdded == 0 && linesRead > 0) {
-            Log.w(TAG, "No track points were added, even though CSV file has content. Check for formatting issues.");
+    private static void saveToDownloads(Context context, TrackBuffer track, String extension, String mimeType,
+                                        Encoder encoder) throws IOException {
+        Uri uri = null;
+        boolean published = false;
+        try {
+            uri = insertPendingDownload(context, fileName() + extension, mimeType);
+            try (OutputStream outputStream = openDownload(context, uri)) {
+                int pointsAdded = encoder.write(track, outputStream);
+                Log.d(TAG, "Successfully wrote " + extension + " file. Track points added: " + pointsAdded);
+                if (pointsAdded == 0) {
+                    Log.w(TAG, "No track points were added. Check the recorded track.");
+                }
+            }
+            publishDownloads(context, uri);
+            published = true;
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing to " + extension + " file.", e);
+            throw e;
+        } finally {
+            if (!published) {
+                deleteDownloads(context, uri);
+            }
         }
-        Log.d(TAG, "Final GPX Content Snippet: " + gpxContent.substring(0, Math.min(gpxContent.length(), 400)));
-
+    }
 
-        saveGpxFile(context, gpxContent.toString());
+    private static String fileName() {
+        return "track-" + new SimpleDateFormat("yyyy-MM-dd'T'HH-mm-ss", Locale.US).format(new Date());
     }
 
-    private static void saveGpxFile(Context context, String gpxContent) throws IOException {
+    /**
+     * Creates a file in the Downloads collection that is pending, i.e. not visible to other
+     * apps, until {@link #publishDownloads} is called.
+     */
+    private static Uri insertPendingDownload(Context context, String displayName, String mimeType)
+            throws IOException {
         ContentValues values = new ContentValues();
-        String formattedDate = new SimpleDateFormat("yyyy-MM-dd'T'HH-mm-ss", Locale.US).format(new Date());
-        values.put(MediaStore.MediaColumns.DISPLAY_NAME, "track-" + formattedDate + ".gpx");
-        values.put(MediaStore.MediaColumns.MIME_TYPE, "application/gpx+xml");
+        values.put(MediaStore.MediaColumns.DISPLAY_NAME, displayName);
+        values.put(MediaStore.MediaColumns.MIME_TYPE, mimeType);
         values.put(MediaStore.MediaColumns.RELATIVE_PATH, Environment.DIRECTORY_DOWNLOADS);
+        values.put(MediaStore.MediaColumns.IS_PENDING, 1);
 
         Uri uri = context.getContentResolver().insert(MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
+        if (uri == null) {
+            Log.e(TAG, "Failed to create MediaStore entry for " + displayName + ".");
+            throw new IOException("Failed to create new MediaStore record.");
+        }
+        return uri;
+    }
 
-        if (uri != null) {
-            Log.d(TAG, "Attempting to save to URI: " + uri.toString());
-            try (OutputStream outputStream = context.getContentResolver().openOutputStream(uri)) {
-                if (outputStream != null) {
-                    outputStream.write(gpxContent.getBytes());
-                    Log.d(TAG, "Successfully wrote GPX content to file.");
-                } else {
-                    Log.e(TAG, "Failed to open OutputStream for URI: " + uri.toString());
-                    throw new IOException("Failed to get output stream.");
-                }
-            } catch (IOException e) {
-                Log.e(TAG, "Error writing to GPX file.", e);
-                throw e;
+    /**
+     * Opens a file created by {@link #insertPendingDownload} for writing.
+     */
+    private static OutputStream openDownload(Context context, Uri uri) throws IOException {
+        Log.d(TAG, "Attempting to save to URI: " + uri.toString());
+        OutputStream outputStream = context.getContentResolver().openOutputStream(uri);
+        if (outputStream == null) {
+            Log.e(TAG, "Failed to open OutputStream for URI: " + uri.toString());
+            throw new IOException("Failed to get output stream.");
+        }
+        return outputStream;
+    }
+
+    /**
+     * Makes complete downloads visible to other apps.
+     */
+    private static void publishDownloads(Context context, Uri... uris) throws IOException {
+        ContentValues values = new ContentValues();
+        values.put(MediaStore.MediaColumns.IS_PENDING, 0);
+        for (Uri uri : uris) {
+            if (context.getContentResolver().update(uri, values, null, null) != 1) {
+                throw new IOException("Failed to publish " + uri + ".");
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of an export that failed, skipping those that were not created.
+     */
+    private static void deleteDownloads(Context context, Uri... uris) {
+        for (Uri uri : uris) {
+            if (uri == null) {
+                continue;
+            }
+            try {
+                context.getContentResolver().delete(uri, null, null);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to delete incomplete download " + uri + ".", e);
             }
-        } else {
-            Log.e(TAG, "Failed to create MediaStore entry for the GPX file.");
-            throw new IOException("Failed to create new MediaStore record.");
         }
     }
 }
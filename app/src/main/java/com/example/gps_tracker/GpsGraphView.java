@@ -1,6 +1,7 @@
 package com.example.gps_tracker;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -8,11 +9,8 @@ import android.graphics.Path;
 import android.util.AttributeSet;
 import android.view.View;
 
-import com.example.gps_tracker.vorgeben.LatLng;
-import com.example.gps_tracker.vorgeben.UTMRef;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.example.gps_tracker.track.DecimalFormatter;
+import com.example.gps_tracker.track.TrackBuffer;
 
 public class GpsGraphView extends View {
 
@@ -22,10 +20,21 @@ public class GpsGraphView extends View {
     private Paint axisTitlePaint;
     private Paint directionPointerPaint;
 
-    private List<LatLng> latLngPoints = new ArrayList<>();
-    private List<UTMRef> utmPoints = new ArrayList<>();
+    private TrackBuffer track = new TrackBuffer();
+    private final DecimalFormatter labelFormatter = new DecimalFormatter();
+    private final Path trackPath = new Path();
+    private final Path arrow = new Path();
     private float phoneBearing = 0f;
 
+    // Grid and track are drawn into this layer and only redrawn when the scale changes; new
+    // points are stroked onto it, so a bearing update only draws the layer and the arrow
+    private Bitmap layer;
+    private Canvas layerCanvas;
+    private int layerPoints;
+    private double layerMinEasting;
+    private double layerMinNorthing;
+    private double layerUtmSize;
+
     public GpsGraphView(Context context, AttributeSet attrs) {
         super(context, attrs);
         init();
@@ -42,6 +51,9 @@ public class GpsGraphView extends View {
         trackPaint.setStyle(Paint.Style.STROKE);
         trackPaint.setStrokeWidth(5);
         trackPaint.setAntiAlias(true);
+        // Segments added to the layer one at a time join up like a single path
+        trackPaint.setStrokeCap(Paint.Cap.ROUND);
+        trackPaint.setStrokeJoin(Paint.Join.ROUND);
 
         axisLabelPaint = new Paint();
         axisLabelPaint.setColor(Color.BLACK);
@@ -58,66 +70,85 @@ public class GpsGraphView extends View {
         directionPointerPaint.setColor(Color.RED);
         directionPointerPaint.setStyle(Paint.Style.FILL);
         directionPointerPaint.setAntiAlias(true);
+
+        arrow.moveTo(0, -30); // Point of the arrow
+        arrow.lineTo(-20, 20);
+        arrow.lineTo(0, 10);
+        arrow.lineTo(20, 20);
+        arrow.close();
     }
 
-    public void addPoint(LatLng point) {
-        latLngPoints.add(point);
-        utmPoints.add(point.toUTMRef());
+    public void setTrack(TrackBuffer track) {
+        this.track = track;
+        layerPoints = 0;
         invalidate();
     }
 
-    public void setPoints(List<LatLng> points) {
-        latLngPoints.clear();
-        utmPoints.clear();
-        if (points != null) {
-            latLngPoints.addAll(points);
-            for (LatLng point : points) {
-                utmPoints.add(point.toUTMRef());
-            }
-        }
+    public TrackBuffer getTrack() {
+        return track;
+    }
+
+    public void addPoint(long time, double lat, double lng, double altitude) {
+        track.add(time, lat, lng, altitude);
         invalidate();
     }
 
     public void updatePhoneBearing(float bearing) {
+        // Sensor noise below a degree does not move the arrow visibly
+        if (Math.abs(bearing - phoneBearing) < 1f) {
+            return;
+        }
         this.phoneBearing = bearing;
         invalidate();
     }
 
     public void clearTrack() {
-        latLngPoints.clear();
-        utmPoints.clear();
+        track.clear();
+        layerPoints = 0;
         invalidate();
     }
 
-    public List<LatLng> getLatLngPoints() {
-        return latLngPoints;
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        releaseLayer();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        releaseLayer();
+    }
+
+    private void releaseLayer() {
+        if (layer != null) {
+            layer.recycle();
+            layer = null;
+            layerCanvas = null;
+        }
+        layerPoints = 0;
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
-        if (utmPoints.isEmpty()) {
+        int pointCount = track.size();
+        if (pointCount == 0) {
             drawPlaceholder(canvas);
             return;
         }
-
-        double minEasting = Double.MAX_VALUE;
-        double maxEasting = Double.MIN_VALUE;
-        double minNorthing = Double.MAX_VALUE;
-        double maxNorthing = Double.MIN_VALUE;
-
-        for (UTMRef point : utmPoints) {
-            minEasting = Math.min(minEasting, point.getEasting());
-            maxEasting = Math.max(maxEasting, point.getEasting());
-            minNorthing = Math.min(minNorthing, point.getNorthing());
-            maxNorthing = Math.max(maxNorthing, point.getNorthing());
+        if (getWidth() == 0 || getHeight() == 0) {
+            return;
         }
 
-        double eastingRange = maxEasting - minEasting;
-        double northingRange = maxNorthing - minNorthing;
+        // Kept up to date by the track as points are added
+        double minEasting = track.minX();
+        double minNorthing = track.minY();
+        double eastingRange = track.maxX() - minEasting;
+        double northingRange = track.maxY() - minNorthing;
 
-        if (utmPoints.size() == 1) {
+        if (pointCount == 1) {
             eastingRange = 100; // Default range for a single point
             northingRange = 100;
             minEasting -= 50;
@@ -136,13 +167,35 @@ public class GpsGraphView extends View {
         float yOffset = canvasPadding;
 
 
-        drawGridAndLabels(canvas, minEasting, minNorthing, utmSize, size, xOffset, yOffset);
-
+        if (layer == null) {
+            layer = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+            layerCanvas = new Canvas(layer);
+        }
+        updateLayer(minEasting, minNorthing, utmSize, size, xOffset, yOffset);
+        canvas.drawBitmap(layer, 0, 0, null);
+        drawDirectionPointer(canvas, minEasting, minNorthing, utmSize, size, xOffset, yOffset);
+    }
 
-        if (utmPoints.size() >= 1) {
-            drawTrack(canvas, minEasting, minNorthing, utmSize, size, xOffset, yOffset);
-            drawDirectionPointer(canvas, minEasting, minNorthing, utmSize, size, xOffset, yOffset);
+    /**
+     * Brings the layer up to date: redraws it when the scale changed or points were removed,
+     * and otherwise only strokes the points added since it was last drawn.
+     */
+    private void updateLayer(double minEasting, double minNorthing, double utmSize, float size, float xOffset, float yOffset) {
+        int pointCount = track.size();
+        if (pointCount < layerPoints || minEasting != layerMinEasting || minNorthing != layerMinNorthing
+                || utmSize != layerUtmSize) {
+            layerPoints = 0;
         }
+        if (layerPoints == 0) {
+            layer.eraseColor(Color.TRANSPARENT);
+            drawGridAndLabels(layerCanvas, minEasting, minNorthing, utmSize, size, xOffset, yOffset);
+            layerMinEasting = minEasting;
+            layerMinNorthing = minNorthing;
+            layerUtmSize = utmSize;
+        }
+        // Start at the last point already drawn, to connect the new segments to it
+        drawTrack(layerCanvas, Math.max(layerPoints - 1, 0), minEasting, minNorthing, utmSize, size, xOffset, yOffset);
+        layerPoints = pointCount;
     }
 
     private void drawPlaceholder(Canvas canvas) {
@@ -161,7 +214,8 @@ public class GpsGraphView extends View {
             float x = xOffset + ratio * size;
             canvas.drawLine(x, yOffset, x, yOffset + size, gridPaint);
             double easting = minEasting + (ratio * utmSize);
-            canvas.drawText(String.format("%.0f", easting), x, yOffset + size + 40, axisLabelPaint);
+            labelFormatter.clear().append(easting, 0);
+            canvas.drawText(labelFormatter.buffer(), 0, labelFormatter.length(), x, yOffset + size + 40, axisLabelPaint);
 
 
             float y = yOffset + size - (ratio * size);
@@ -169,25 +223,30 @@ public class GpsGraphView extends View {
             double northing = minNorthing + (ratio * utmSize);
             canvas.save();
             canvas.rotate(-90, xOffset - 20, y);
-            canvas.drawText(String.format("%.0f", northing), xOffset - 20, y, axisLabelPaint);
+            labelFormatter.clear().append(northing, 0);
+            canvas.drawText(labelFormatter.buffer(), 0, labelFormatter.length(), xOffset - 20, y, axisLabelPaint);
             canvas.restore();
         }
     }
 
-    private void drawTrack(Canvas canvas, double minEasting, double minNorthing, double utmSize, float size, float xOffset, float yOffset) {
-        if(utmPoints.size() < 2) return;
-        Path trackPath = new Path();
-
-        UTMRef firstPoint = utmPoints.get(0);
-        float x0 = xOffset + (float) ((firstPoint.getEasting() - minEasting) / utmSize * size);
-        float y0_prime = (float) ((firstPoint.getNorthing() - minNorthing) / utmSize * size);
+    /**
+     * Strokes the track from point {@code from} to the last point.
+     */
+    private void drawTrack(Canvas canvas, int from, double minEasting, double minNorthing, double utmSize, float size, float xOffset, float yOffset) {
+        int pointCount = track.size();
+        if (pointCount - from < 2) return;
+        double[] eastings = track.xArray();
+        double[] northings = track.yArray();
+        trackPath.rewind();
+
+        float x0 = xOffset + (float) ((eastings[from] - minEasting) / utmSize * size);
+        float y0_prime = (float) ((northings[from] - minNorthing) / utmSize * size);
         float y0 = yOffset + size - y0_prime;
         trackPath.moveTo(x0, y0);
 
-        for (int i = 1; i < utmPoints.size(); i++) {
-            UTMRef currentPoint = utmPoints.get(i);
-            float x = xOffset + (float) ((currentPoint.getEasting() - minEasting) / utmSize * size);
-            float y_prime = (float) ((currentPoint.getNorthing() - minNorthing) / utmSize * size);
+        for (int i = from + 1; i < pointCount; i++) {
+            float x = xOffset + (float) ((eastings[i] - minEasting) / utmSize * size);
+            float y_prime = (float) ((northings[i] - minNorthing) / utmSize * size);
             float y = yOffset + size - y_prime;
             trackPath.lineTo(x, y);
         }
@@ -195,21 +254,14 @@ public class GpsGraphView extends View {
     }
 
     private void drawDirectionPointer(Canvas canvas, double minEasting, double minNorthing, double utmSize, float size, float xOffset, float yOffset) {
-        if (utmPoints.isEmpty()) return;
+        if (track.isEmpty()) return;
 
-        UTMRef lastPoint = utmPoints.get(utmPoints.size() - 1);
+        int last = track.size() - 1;
 
-        float x = xOffset + (float) ((lastPoint.getEasting() - minEasting) / utmSize * size);
-        float y_prime = (float) ((lastPoint.getNorthing() - minNorthing) / utmSize * size);
+        float x = xOffset + (float) ((track.x(last) - minEasting) / utmSize * size);
+        float y_prime = (float) ((track.y(last) - minNorthing) / utmSize * size);
         float y = yOffset + size - y_prime;
 
-        Path arrow = new Path();
-        arrow.moveTo(0, -30); // Point of the arrow
-        arrow.lineTo(-20, 20);
-        arrow.lineTo(0, 10);
-        arrow.lineTo(20, 20);
-        arrow.close();
-
         canvas.save();
         canvas.translate(x, y);
         canvas.rotate(phoneBearing);
@@ -11,35 +11,62 @@ import android.hardware.SensorManager;
 import android.location.Location;
 import android.location.LocationListener;
 import android.location.LocationManager;
+import android.net.Uri;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.ImageButton;
+import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.example.gps_tracker.track.DecimalFormatter;
+import com.example.gps_tracker.track.GpxExportCache;
+import com.example.gps_tracker.track.IsoTimestamp;
+import com.example.gps_tracker.track.MappedTrackFile;
+import com.example.gps_tracker.track.TrackArchive;
+import com.example.gps_tracker.track.TrackBuffer;
+import com.example.gps_tracker.track.TrackCsv;
+import com.example.gps_tracker.track.TrackFile;
+import com.example.gps_tracker.track.TrackFileWriter;
+import com.example.gps_tracker.track.TrackRecorder;
+import com.example.gps_tracker.track.TrackSummary;
 
-import com.example.gps_tracker.vorgeben.LatLng;
-
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.text.DateFormat;
+import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
-public class MainActivity extends AppCompatActivity implements LocationListener, SensorEventListener {
+public class MainActivity extends AppCompatActivity implements LocationListener, SensorEventListener,
+        TrackViewModel.Listener {
+    private TrackViewModel model;
     private GpsGraphView gpsGraphView;
-    private Button startPauseButton, clearButton, showCsvButton;
-    private ImageButton downloadGpxButton;
+    private TrackBuffer track;
+    private GpxExportCache gpxExportCache;
+    private TrackRecorder trackRecorder;
+    private TrackArchive archive;
+    private TrackArchive.Session session;
+    private TrackSummary summary = new TrackSummary();
+    /** Whether the track file of the session could not be read, so that it is neither recorded to nor summarised. */
+    private boolean sessionUnreadable;
+    private Button startPauseButton, clearButton, showCsvButton, tracksButton;
+    private ImageButton downloadGpxButton, importGpxButton;
     private TextView latitudeValue, longitudeValue, altitudeValue;
+    private final DecimalFormatter valueFormatter = new DecimalFormatter();
 
     private boolean tracking = false;
     private LocationManager locationManager;
@@ -51,20 +78,28 @@ public class MainActivity extends AppCompatActivity implements LocationListener,
     private final float[] orientationAngles = new float[3];
 
     private AlertDialog csvDialog;
-    private TextView csvDataTextView;
+    private ListView csvListView;
+    private CsvRowAdapter csvRowAdapter;
 
-    private static final String CSV_HEADER = "time,latitude,longitude,altitude";
+    private final ActivityResultLauncher<String[]> openGpxDocument =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importGpx);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        gpxExportCache = new GpxExportCache(new File(getCacheDir(), "export.gpx"));
+        model = new ViewModelProvider(this).get(TrackViewModel.class);
+        track = model.getTrack();
 
         gpsGraphView = findViewById(R.id.gpsGraphView);
+        gpsGraphView.setTrack(track);
         startPauseButton = findViewById(R.id.startPauseButton);
         clearButton = findViewById(R.id.clearButton);
         showCsvButton = findViewById(R.id.showCsvButton);
+        tracksButton = findViewById(R.id.tracksButton);
         downloadGpxButton = findViewById(R.id.downloadGpxButton);
+        importGpxButton = findViewById(R.id.importGpxButton);
         latitudeValue = findViewById(R.id.latitudeValue);
         longitudeValue = findViewById(R.id.longitudeValue);
         altitudeValue = findViewById(R.id.altitudeValue);
@@ -80,17 +115,21 @@ public class MainActivity extends AppCompatActivity implements LocationListener,
         });
 
         clearButton.setOnClickListener(v -> {
-            clearTrackingData();
+            startNewSession();
         });
 
         showCsvButton.setOnClickListener(v -> {
             showCsvDataDialog();
         });
 
+        tracksButton.setOnClickListener(v -> {
+            showSessionsDialog();
+        });
+
         downloadGpxButton.setOnClickListener(v -> {
             try {
                 Log.d("CSV", "Try write xml");
-                GPXConverter.convertAndDownloadGPXFromCSV(this);
+                GPXConverter.convertAndDownloadGPX(this, track, gpxExportCache, session != null ? session.getId() : -1);
                 Toast.makeText(this, "GPX file downloaded.", Toast.LENGTH_SHORT).show();
             } catch (IOException e) {
                 Toast.makeText(this, "Error downloading GPX file.", Toast.LENGTH_SHORT).show();
@@ -98,43 +137,203 @@ public class MainActivity extends AppCompatActivity implements LocationListener,
             }
         });
 
+        // Other formats: the compact polyline for sharing, or everything at once
+        downloadGpxButton.setOnLongClickListener(v -> {
+            new AlertDialog.Builder(this)
+                    .setTitle("Export")
+                    .setItems(new CharSequence[]{"Polyline", "GPX, GeoJSON, KML and CSV"},
+                            (dialog, which) -> exportTrack(which == 0))
+                    .setNegativeButton("Cancel", null)
+                    .show();
+            return true;
+        });
+
+        importGpxButton.setOnClickListener(v -> {
+            // Many file managers do not know the GPX type
+            openGpxDocument.launch(new String[]{"application/gpx+xml", "application/xml", "text/xml",
+                    "application/octet-stream"});
+        });
+
         locationManager = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
         if (ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED && ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_COARSE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
             ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.ACCESS_FINE_LOCATION, Manifest.permission.ACCESS_COARSE_LOCATION}, 1);
         }
 
-        loadPreviousTrack();
+        openArchive();
+        model.setListener(this);
+    }
+
+    private void openArchive() {
+        try {
+            archive = model.openArchive(new File(getFilesDir(), TrackArchive.DIRECTORY_NAME));
+            if (archive.latest() == null) {
+                migrateLegacyTrack(archive.trackFile(archive.create().getId()));
+            }
+        } catch (IOException e) {
+            Log.e("TRACK_ARCHIVE", "Error opening track archive", e);
+            archive = null;
+            return;
+        }
+        openSession(archive.latest());
     }
 
-    private void loadPreviousTrack() {
-        File file = new File(getFilesDir(), "gps_data.csv");
-        if (!file.exists()) {
+    /**
+     * Makes {@code selected} the session that is shown and recorded to. Its summary is
+     * recomputed from the points, including those recovered from the journal, so the index
+     * catches up with fixes recorded before a crash. A session that is still being imported is
+     * only shown, as the import fills the track, and opened again when the import is done.
+     */
+    private void openSession(TrackArchive.Session selected) {
+        session = selected;
+        summary = new TrackSummary();
+        sessionUnreadable = false;
+        if (archive.isImporting(selected.getId())) {
+            setImportRunning(true);
+            gpsGraphView.invalidate();
             return;
         }
+        gpsGraphView.clearTrack();
 
-        List<LatLng> points = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            reader.readLine();
-            while ((line = reader.readLine()) != null) {
-                String[] values = line.split(",");
-                if (values.length >= 3) {
-                    try {
-                        double lat = Double.parseDouble(values[1]);
-                        double lng = Double.parseDouble(values[2]);
-                        points.add(new LatLng(lat, lng));
-                    } catch (NumberFormatException e) {
-                        Log.e("CSV_PARSE", "Could not parse line: " + line, e);
-                    }
+        File trackFile = archive.trackFile(selected.getId());
+        long validLength = 0;
+        if (trackFile.exists()) {
+            try (MappedTrackFile mapped = MappedTrackFile.open(trackFile)) {
+                track.ensureCapacity(mapped.size());
+                mapped.readAll(track);
+                validLength = mapped.getValidLength();
+                if (mapped.isTruncated()) {
+                    Log.w("TRACK_READ", "Dropping damaged end of track file after " + track.size() + " points");
                 }
+            } catch (IOException e) {
+                // Recording would start the file over, so leave it and its summary alone
+                Log.e("TRACK_READ", "Error reading track " + selected.getId(), e);
+                Toast.makeText(this, "Track cannot be read, start a new one to record.", Toast.LENGTH_LONG).show();
+                sessionUnreadable = true;
+                gpsGraphView.invalidate();
+                return;
             }
+        }
+        // Fixes that were only in the journal when the app was killed are added to the track
+        openTrackRecorder(trackFile, validLength);
+        for (int i = 0; i < track.size(); i++) {
+            summary.add(track.time(i), track.lat(i), track.lng(i), track.altitude(i));
+        }
+        saveSession();
+        gpsGraphView.invalidate();
+    }
+
+    /**
+     * Writes the summary of the current session to the archive index.
+     */
+    private void saveSession() {
+        if (archive == null || session == null || sessionUnreadable || archive.isImporting(session.getId())) {
+            return;
+        }
+        try {
+            session = archive.update(session.getId(), summary);
         } catch (IOException e) {
-            Log.e("CSV_READ", "Error reading previous track data", e);
+            Log.e("TRACK_ARCHIVE", "Error updating track index", e);
         }
+    }
 
-        if (!points.isEmpty()) {
-            gpsGraphView.setPoints(points);
+    /**
+     * Moves a track recorded by earlier versions, either as a single track.bin or before that
+     * as gps_data.csv, into the first session of the archive.
+     */
+    private void migrateLegacyTrack(File sessionFile) {
+        File trackFile = new File(getFilesDir(), TrackFile.FILE_NAME);
+        if (trackFile.exists()) {
+            if (!trackFile.renameTo(sessionFile)) {
+                Log.e("TRACK_ARCHIVE", "Could not move " + trackFile + " to " + sessionFile);
+            }
+            return;
         }
+
+        File csvFile = new File(getFilesDir(), TrackCsv.FILE_NAME);
+        if (!csvFile.exists()) {
+            return;
+        }
+        try (InputStream in = new FileInputStream(csvFile);
+             TrackFileWriter writer = TrackFileWriter.append(sessionFile, 0)) {
+            TrackCsv.read(in, writer, (lineNumber, line, e) ->
+                    Log.e("CSV_PARSE", "Could not parse line " + lineNumber + ": " + line, e));
+        } catch (IOException | UncheckedIOException e) {
+            Log.e("TRACK_WRITE", "Error converting CSV track", e);
+            sessionFile.delete();
+            return;
+        }
+        csvFile.delete();
+    }
+
+    /**
+     * Adds the track points of a GPX document as a new session and shows it while the
+     * {@link TrackViewModel} reads it, see {@link TrackViewModel#startImport}.
+     */
+    private void importGpx(Uri uri) {
+        if (uri == null || archive == null) {
+            return;
+        }
+        if (tracking) {
+            pauseTracking();
+        }
+        closeTrackRecorder();
+        saveSession();
+        try {
+            session = archive.create();
+        } catch (IOException e) {
+            Log.e("TRACK_ARCHIVE", "Error adding imported track", e);
+            Toast.makeText(this, "Error importing GPX file.", Toast.LENGTH_SHORT).show();
+            openSession(session);
+            return;
+        }
+        summary = new TrackSummary();
+        gpsGraphView.clearTrack();
+        setImportRunning(true);
+        model.startImport(getContentResolver(), uri, session);
+    }
+
+    @Override
+    public void onImportProgress() {
+        gpsGraphView.invalidate();
+    }
+
+    @Override
+    public void onImportFinished(long sessionId, int points, Exception error) {
+        setImportRunning(false);
+        // Read back what was written, so the recorder appends after the last complete block
+        TrackArchive.Session imported = archive != null ? archive.session(sessionId) : null;
+        if (imported != null && session != null && session.getId() == sessionId) {
+            openSession(imported);
+        }
+        if (error != null) {
+            Log.e("GPX_IMPORT", "Error importing GPX after " + points + " points", error);
+            Toast.makeText(this, "Error importing GPX file.", Toast.LENGTH_SHORT).show();
+        } else {
+            Toast.makeText(this, "Imported " + points + " points.", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void exportTrack(boolean polyline) {
+        try {
+            if (polyline) {
+                GPXConverter.convertAndDownloadPolyline(this, track);
+                Toast.makeText(this, "Polyline file downloaded.", Toast.LENGTH_SHORT).show();
+            } else {
+                GPXConverter.convertAndDownloadAll(this, track);
+                Toast.makeText(this, "GPX, GeoJSON, KML and CSV files downloaded.", Toast.LENGTH_SHORT).show();
+            }
+        } catch (IOException e) {
+            Toast.makeText(this, "Error downloading files.", Toast.LENGTH_SHORT).show();
+            Log.e("GPX_DOWNLOAD", "Error exporting track", e);
+        }
+    }
+
+    private void setImportRunning(boolean running) {
+        startPauseButton.setEnabled(!running);
+        clearButton.setEnabled(!running);
+        tracksButton.setEnabled(!running);
+        importGpxButton.setEnabled(!running);
+        downloadGpxButton.setEnabled(!running);
     }
 
     private void startTracking() {
@@ -149,16 +348,126 @@ public class MainActivity extends AppCompatActivity implements LocationListener,
         stopLocationUpdates();
     }
 
-    private void clearTrackingData() {
-        gpsGraphView.clearTrack();
-        File file = new File(getFilesDir(), "gps_data.csv");
-        if (file.exists()) {
-            if(file.delete()) {
-                Toast.makeText(this, "Track data cleared.", Toast.LENGTH_SHORT).show();
+    /**
+     * Keeps the current session in the archive and starts recording a new one.
+     */
+    private void startNewSession() {
+        if (archive == null || (summary.isEmpty() && !sessionUnreadable)) {
+            return;
+        }
+        closeTrackRecorder();
+        saveSession();
+        try {
+            openSession(archive.create());
+            Toast.makeText(this, "New track started.", Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Log.e("TRACK_ARCHIVE", "Error starting new track", e);
+            openSession(session);
+        }
+        if (csvDialog != null && csvDialog.isShowing()) {
+            updateCsvDialog();
+        }
+    }
+
+    /**
+     * Lists the archived sessions, newest first, from the archive index alone. A long press
+     * on a session offers to delete it.
+     */
+    private void showSessionsDialog() {
+        if (archive == null) {
+            return;
+        }
+        saveSession();
+        List<TrackArchive.Session> sessions = archive.sessions();
+        DateFormat dateFormat = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT);
+        CharSequence[] items = new CharSequence[sessions.size()];
+        for (int i = 0; i < items.length; i++) {
+            TrackArchive.Session item = sessions.get(sessions.size() - 1 - i);
+            StringBuilder label = new StringBuilder();
+            if (item.isEmpty()) {
+                label.append("Empty track");
+            } else {
+                label.append(dateFormat.format(new Date(item.getStartTime())))
+                        .append("\n").append(item.getPointCount()).append(" points, ")
+                        .append(valueFormatter.clear().append(item.getDistance(), 2)).append(" km");
+            }
+            if (item.getId() == session.getId()) {
+                label.append(" (current)");
+            }
+            items[i] = label;
+        }
+
+        AlertDialog dialog = new AlertDialog.Builder(this)
+                .setTitle("Tracks")
+                .setItems(items, (d, which) -> switchSession(sessions.get(sessions.size() - 1 - which)))
+                .setNegativeButton("Cancel", null)
+                .show();
+        dialog.getListView().setOnItemLongClickListener((parent, view, position, id) -> {
+            TrackArchive.Session selected = sessions.get(sessions.size() - 1 - position);
+            dialog.dismiss();
+            new AlertDialog.Builder(this)
+                    .setTitle("Delete track?")
+                    .setMessage(items[position])
+                    .setPositiveButton("Delete", (d, which) -> deleteSession(selected))
+                    .setNegativeButton("Cancel", null)
+                    .show();
+            return true;
+        });
+    }
+
+    /**
+     * Removes a session and its track file from the archive. If it is the current session,
+     * the latest remaining one is opened instead, or a new one if there is none.
+     */
+    private void deleteSession(TrackArchive.Session selected) {
+        // Checked before the recorder is closed, since the archive refuses these
+        if (archive.session(selected.getId()) == null || archive.isImporting(selected.getId())) {
+            Toast.makeText(this, "Track cannot be deleted now.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        boolean current = selected.getId() == session.getId();
+        if (current) {
+            if (tracking) {
+                pauseTracking();
+            }
+            closeTrackRecorder();
+            gpxExportCache.clear();
+        }
+        try {
+            archive.delete(selected.getId());
+            if (current) {
+                openSession(archive.latest() != null ? archive.latest() : archive.create());
+            }
+            Toast.makeText(this, "Track deleted.", Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Log.e("TRACK_ARCHIVE", "Error deleting track " + selected.getId(), e);
+            Toast.makeText(this, "Error deleting track.", Toast.LENGTH_SHORT).show();
+            // Whatever is left of the session, or what is there instead
+            TrackArchive.Session remaining = archive.session(session.getId());
+            if (remaining == null) {
+                remaining = archive.latest();
             }
+            if (current && remaining != null) {
+                openSession(remaining);
+            }
+        }
+        if (current && csvDialog != null && csvDialog.isShowing()) {
+            updateCsvDialog();
+        }
+    }
+
+    private void switchSession(TrackArchive.Session selected) {
+        if (selected.getId() == session.getId()) {
+            return;
         }
+        if (tracking) {
+            pauseTracking();
+        }
+        closeTrackRecorder();
+        saveSession();
+        openSession(selected);
         if (csvDialog != null && csvDialog.isShowing()) {
-            csvDataTextView.setText("No CSV data found.");
+            updateCsvDialog();
         }
     }
 
@@ -170,7 +479,19 @@ public class MainActivity extends AppCompatActivity implements LocationListener,
             LayoutInflater inflater = getLayoutInflater();
             View dialogView = inflater.inflate(R.layout.dialog_csv, null);
             builder.setView(dialogView);
-            csvDataTextView = dialogView.findViewById(R.id.csvDataTextView);
+            csvRowAdapter = new CsvRowAdapter(track);
+            csvListView = dialogView.findViewById(R.id.csvListView);
+            csvListView.setAdapter(csvRowAdapter);
+            csvListView.setEmptyView(dialogView.findViewById(R.id.csvEmptyTextView));
+            TextView headerView = dialogView.findViewById(R.id.csvHeaderTextView);
+            headerView.setText(TrackCsv.HEADER);
+
+            EditText jumpInput = dialogView.findViewById(R.id.csvJumpInput);
+            dialogView.findViewById(R.id.csvJumpButton).setOnClickListener(v -> jumpToCsvRow(jumpInput.getText()));
+            jumpInput.setOnEditorActionListener((v, actionId, event) -> {
+                jumpToCsvRow(v.getText());
+                return true;
+            });
 
             builder.setPositiveButton("OK", (dialog, which) -> {
                 csvDialog.dismiss();
@@ -182,24 +503,36 @@ public class MainActivity extends AppCompatActivity implements LocationListener,
         csvDialog.show();
     }
 
+    /**
+     * Lets the CSV list pick up new or replaced points. Only the visible rows are formatted
+     * again, so this is cheap enough to call on every fix.
+     */
     private void updateCsvDialog() {
-        File file = new File(getFilesDir(), "gps_data.csv");
-        StringBuilder csvData = new StringBuilder();
-        if (file.exists()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    csvData.append(line).append("\n");
-                }
-            } catch (IOException e) {
-                csvData.append("Error reading CSV file.");
-            }
-        } else {
-            csvData.append("No CSV data found.");
+        if (csvRowAdapter != null) {
+            csvRowAdapter.notifyDataSetChanged();
         }
+    }
 
-        if (csvDataTextView != null) {
-            csvDataTextView.setText(csvData.toString());
+    /**
+     * Scrolls the CSV list to a row, given by its number counting from 1, or to the first fix
+     * at or after a time given as an ISO 8601 timestamp.
+     */
+    private void jumpToCsvRow(CharSequence input) {
+        String text = input.toString().trim();
+        int index;
+        try {
+            index = Integer.parseInt(text) - 1;
+        } catch (NumberFormatException e) {
+            try {
+                index = track.indexOfTime(IsoTimestamp.parse(text));
+            } catch (IllegalArgumentException notATime) {
+                Toast.makeText(this, "Enter a row number or a time like 2024-05-01T12:00:00Z.",
+                        Toast.LENGTH_SHORT).show();
+                return;
+            }
+        }
+        if (!track.isEmpty()) {
+            csvListView.setSelection(Math.max(0, Math.min(index, track.size() - 1)));
         }
     }
 
@@ -217,38 +550,65 @@ public class MainActivity extends AppCompatActivity implements LocationListener,
     public void onLocationChanged(@NonNull Location location) {
         double latitude = location.getLatitude();
         double longitude = location.getLongitude();
-        latitudeValue.setText(String.format(Locale.US, "%.6f", latitude));
-        longitudeValue.setText(String.format(Locale.US, "%.6f", longitude));
+        latitudeValue.setText(valueFormatter.clear().append(latitude, 6));
+        longitudeValue.setText(valueFormatter.clear().append(longitude, 6));
 
         if (location.hasAltitude()) {
             double altitude = location.getAltitude();
-            altitudeValue.setText(String.format(Locale.US, "%.2f m", altitude));
+            altitudeValue.setText(valueFormatter.clear().append(altitude, 2).append(" m"));
         } else {
             altitudeValue.setText("N/A");
         }
 
-        LatLng latLng = new LatLng(latitude, longitude);
-        gpsGraphView.addPoint(latLng);
-
         long time = location.getTime();
-        String csvLine = String.format(Locale.US, "%d,%.6f,%.6f,%.2f", time, latitude, longitude, location.getAltitude());
-        writeToCsv(csvLine);
+        gpsGraphView.addPoint(time, latitude, longitude, location.getAltitude());
+        writeToTrackFile(time, latitude, longitude, location.getAltitude());
+        summary.add(time, latitude, longitude, location.getAltitude());
 
         if (csvDialog != null && csvDialog.isShowing()) {
             updateCsvDialog();
         }
     }
 
-    private void writeToCsv(String line) {
-        File file = new File(getFilesDir(), "gps_data.csv");
-        try (FileWriter fw = new FileWriter(file, true)) {
-            if (file.length() == 0) {
-                fw.write(CSV_HEADER + System.lineSeparator());
-            }
-            fw.write(line + System.lineSeparator());
+    private void openTrackRecorder(File trackFile, long validLength) {
+        try {
+            trackRecorder = TrackRecorder.open(trackFile, validLength, track);
+        } catch (IOException | UncheckedIOException e) {
+            Log.e("TRACK_WRITE", "Error opening track file", e);
+        }
+    }
+
+    private void writeToTrackFile(long time, double latitude, double longitude, double altitude) {
+        if (trackRecorder != null && !trackRecorder.offer(time, latitude, longitude, altitude)) {
+            Log.w("TRACK_WRITE", "Dropped fix, " + trackRecorder.getDroppedCount() + " dropped so far");
+        }
+    }
+
+    private void flushTrackRecorder() {
+        if (trackRecorder == null) {
+            return;
+        }
+        trackRecorder.flush();
+        IOException error = trackRecorder.getLastError();
+        if (error != null) {
+            Log.e("TRACK_WRITE", "Error writing track file", error);
+        }
+        Log.d("TRACK_WRITE", "Committed " + trackRecorder.getCommittedCount() + " fixes in "
+                + trackRecorder.getCommitCount() + " syncs, " + trackRecorder.getCheckpointCount()
+                + " checkpoints, dropped " + trackRecorder.getDroppedCount()
+                + ", backpressure " + trackRecorder.getBackpressureCount());
+    }
+
+    private void closeTrackRecorder() {
+        if (trackRecorder == null) {
+            return;
+        }
+        try {
+            trackRecorder.close();
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.e("TRACK_WRITE", "Error closing track file", e);
         }
+        trackRecorder = null;
     }
 
     @Override
@@ -286,6 +646,17 @@ public class MainActivity extends AppCompatActivity implements LocationListener,
             stopLocationUpdates();
         }
         sensorManager.unregisterListener(this);
+        flushTrackRecorder();
+        saveSession();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // A running import goes on in the view model, or is cancelled with it
+        model.setListener(null);
+        closeTrackRecorder();
+        saveSession();
     }
 
     @Override
@@ -0,0 +1,216 @@
+package com.example.gps_tracker;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.Xml;
+
+import androidx.lifecycle.ViewModel;
+
+import com.example.gps_tracker.track.GpxReader;
+import com.example.gps_tracker.track.TrackArchive;
+import com.example.gps_tracker.track.TrackBuffer;
+import com.example.gps_tracker.track.TrackFileWriter;
+import com.example.gps_tracker.track.TrackSink;
+import com.example.gps_tracker.track.TrackSummary;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the track archive, the shown track and a running GPX import across activity
+ * instances, so that an import started before a rotation finishes into the same session.
+ * While an import runs its session is marked in the archive, and the activity must neither
+ * record to it nor save its summary; the import stores the summary itself when it is done.
+ * An import is cancelled, and waited for, when the activity is finished for good.
+ *
+ * All methods are called on the main thread.
+ */
+public class TrackViewModel extends ViewModel {
+
+    /**
+     * Told about an import, on the main thread, while attached with {@link #setListener}.
+     */
+    interface Listener {
+        /** Points of the importing session were added to the track. */
+        void onImportProgress();
+
+        /** The import has closed the track file, whatever was read before an error is kept. */
+        void onImportFinished(long sessionId, int points, Exception error);
+    }
+
+    private static final long CANCEL_TIMEOUT_MILLIS = 5000;
+
+    private final TrackBuffer track = new TrackBuffer();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor();
+    private volatile boolean cancelled;
+
+    private TrackArchive archive;
+    private Listener listener;
+    /** The end of an import that finished while no activity was attached. */
+    private Runnable undelivered;
+
+    /**
+     * The track shown by the activity. Imported points are added to it as they are read.
+     */
+    TrackBuffer getTrack() {
+        return track;
+    }
+
+    /**
+     * The archive in {@code directory}, opened on the first call and then kept, together
+     * with the marks of imports that are still running.
+     */
+    TrackArchive openArchive(File directory) throws IOException {
+        if (archive == null) {
+            archive = TrackArchive.open(directory);
+        }
+        return archive;
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+        if (listener != null && undelivered != null) {
+            Runnable finished = undelivered;
+            undelivered = null;
+            finished.run();
+        }
+    }
+
+    /**
+     * Reads the track points of a GPX document on a background thread straight into the
+     * track file of {@code session}, a new session of the archive, and hands them to the
+     * track in batches so that it is drawn while it loads.
+     */
+    void startImport(ContentResolver resolver, Uri uri, TrackArchive.Session session) {
+        long sessionId = session.getId();
+        File trackFile = archive.trackFile(sessionId);
+        archive.setImporting(sessionId, true);
+        TrackSummary importSummary = new TrackSummary();
+        importExecutor.execute(() -> {
+            int points = 0;
+            Exception error = null;
+            try (InputStream in = resolver.openInputStream(uri);
+                 TrackFileWriter writer = TrackFileWriter.append(trackFile, 0)) {
+                if (in == null) {
+                    throw new IOException("Cannot open " + uri);
+                }
+                ImportBatches batches = new ImportBatches(writer, importSummary);
+                try {
+                    points = GpxReader.read(Xml.newPullParser(), new BufferedInputStream(in), batches);
+                } finally {
+                    batches.post();
+                }
+            } catch (IOException | UncheckedIOException e) {
+                error = e;
+            }
+            int imported = points;
+            Exception importError = error;
+            mainHandler.post(() -> finishImport(sessionId, imported, importSummary, importError));
+        });
+    }
+
+    private void finishImport(long sessionId, int points, TrackSummary importSummary, Exception error) {
+        if (cancelled) {
+            return;
+        }
+        archive.setImporting(sessionId, false);
+        try {
+            archive.update(sessionId, importSummary);
+        } catch (IOException e) {
+            Log.e("TRACK_ARCHIVE", "Error updating track index", e);
+        }
+        Runnable finished = () -> listener.onImportFinished(sessionId, points, error);
+        if (listener != null) {
+            finished.run();
+        } else {
+            undelivered = finished;
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        // The track file must be closed before another activity opens it for recording
+        cancelled = true;
+        importExecutor.shutdownNow();
+        try {
+            if (!importExecutor.awaitTermination(CANCEL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                Log.e("GPX_IMPORT", "Cancelled import did not stop");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes imported points to the track file and its summary, and collects them in batches for the main thread,
+     * which owns the track buffer. Stops the import once it is cancelled.
+     */
+    private final class ImportBatches implements TrackSink {
+        private static final int BATCH_SIZE = 1024;
+
+        private final TrackFileWriter writer;
+        private final TrackSummary trackSummary;
+        private long[] time = new long[BATCH_SIZE];
+        private double[] lat = new double[BATCH_SIZE];
+        private double[] lng = new double[BATCH_SIZE];
+        private double[] altitude = new double[BATCH_SIZE];
+        private int size;
+
+        ImportBatches(TrackFileWriter writer, TrackSummary summary) {
+            this.writer = writer;
+            this.trackSummary = summary;
+        }
+
+        @Override
+        public void add(long time, double lat, double lng, double altitude) {
+            if (cancelled) {
+                throw new UncheckedIOException(new InterruptedIOException("Import cancelled"));
+            }
+            writer.add(time, lat, lng, altitude);
+            trackSummary.add(time, lat, lng, altitude);
+            this.time[size] = time;
+            this.lat[size] = lat;
+            this.lng[size] = lng;
+            this.altitude[size] = altitude;
+            if (++size == BATCH_SIZE) {
+                post();
+            }
+        }
+
+        /**
+         * Hands the collected points to the main thread and starts a new batch.
+         */
+        void post() {
+            if (size == 0) {
+                return;
+            }
+            long[] batchTime = time;
+            double[] batchLat = lat;
+            double[] batchLng = lng;
+            double[] batchAltitude = altitude;
+            int count = size;
+            mainHandler.post(() -> {
+                track.addAll(batchTime, batchLat, batchLng, batchAltitude, 0, count);
+                if (listener != null) {
+                    listener.onImportProgress();
+                }
+            });
+            time = new long[BATCH_SIZE];
+            lat = new double[BATCH_SIZE];
+            lng = new double[BATCH_SIZE];
+            altitude = new double[BATCH_SIZE];
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_21
+    targetCompatibility = JavaVersion.VERSION_21
+}
+
+dependencies {
+    jmh(project(":geo-core"))
+    jmh(libs.kxml2)
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    // Report allocation rate and GC counts alongside the timings
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+}
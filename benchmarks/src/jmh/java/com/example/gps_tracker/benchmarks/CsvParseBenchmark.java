@@ -0,0 +1,63 @@
+package com.example.gps_tracker.benchmarks;
+
+import com.example.gps_tracker.track.TrackBuffer;
+import com.example.gps_tracker.track.TrackCsv;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a CSV track the way {@code MainActivity.migrateCsvTrack} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParseBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int points;
+
+    private byte[] csvFile;
+
+    @Setup
+    public void setUp() {
+        csvFile = new TrackFixtures(points).csvFile();
+    }
+
+    @Benchmark
+    public TrackBuffer loadTrack() throws IOException {
+        TrackBuffer track = new TrackBuffer();
+        TrackCsv.read(new ByteArrayInputStream(csvFile), track, null);
+        return track;
+    }
+
+    /**
+     * Parsing alone, without projecting the points into a track buffer.
+     */
+    @Benchmark
+    public int parseOnly(Blackhole bh) throws IOException {
+        return TrackCsv.read(new ByteArrayInputStream(csvFile), (time, lat, lng, altitude) -> {
+            bh.consume(time);
+            bh.consume(lat);
+            bh.consume(lng);
+            bh.consume(altitude);
+        }, null);
+    }
+}
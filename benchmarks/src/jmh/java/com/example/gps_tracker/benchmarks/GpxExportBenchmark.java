@@ -0,0 +1,105 @@
+package com.example.gps_tracker.benchmarks;
+
+import com.example.gps_tracker.track.CsvWriter;
+import com.example.gps_tracker.track.GeoJsonWriter;
+import com.example.gps_tracker.track.GpxExportCache;
+import com.example.gps_tracker.track.GpxWriter;
+import com.example.gps_tracker.track.KmlWriter;
+import com.example.gps_tracker.track.TrackBuffer;
+import com.example.gps_tracker.track.TrackExport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GPX export of the in-memory track as done by {@code GPXConverter}, writing into a sink
+ * that only counts bytes instead of the MediaStore stream. {@code reexportGpx} is a repeated
+ * export during recording: a few fixes arrive between exports and everything before them
+ * comes from the {@link GpxExportCache}. {@code exportAllFormats} writes GPX, GeoJSON, KML and
+ * CSV in one pass over the track.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GpxExportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int points;
+
+    private TrackBuffer track;
+    private File cacheFile;
+    private GpxExportCache cache;
+    private long time;
+
+    @Setup
+    public void setUp() throws IOException {
+        track = new TrackFixtures(points).track();
+        time = track.time(track.size() - 1);
+        cacheFile = File.createTempFile("export", ".gpx");
+        cache = new GpxExportCache(cacheFile);
+        cache.write(1, track, new CountingOutputStream());
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.clear();
+    }
+
+    @Benchmark
+    public long exportGpx() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream();
+        GpxWriter.write(track, sink);
+        return sink.count;
+    }
+
+    @Benchmark
+    public long exportAllFormats() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream();
+        TrackExport.write(track, "Track", new GpxWriter(sink), new GeoJsonWriter(sink), new KmlWriter(sink),
+                new CsvWriter(sink));
+        return sink.count;
+    }
+
+    @Benchmark
+    public long reexportGpx() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            time += 2000;
+            track.add(time, 52.2053, 0.1218, 20.0);
+        }
+        CountingOutputStream sink = new CountingOutputStream();
+        cache.write(1, track, sink);
+        return sink.count;
+    }
+
+    static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
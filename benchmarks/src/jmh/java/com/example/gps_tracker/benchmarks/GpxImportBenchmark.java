@@ -0,0 +1,65 @@
+package com.example.gps_tracker.benchmarks;
+
+import com.example.gps_tracker.track.GpxReader;
+import com.example.gps_tracker.track.TrackBuffer;
+
+import org.kxml2.io.KXmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GPX import with kXML, the pull parser behind Android's {@code Xml.newPullParser()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GpxImportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int points;
+
+    private byte[] gpxFile;
+
+    @Setup
+    public void setUp() {
+        gpxFile = new TrackFixtures(points).gpxFile();
+    }
+
+    @Benchmark
+    public TrackBuffer importTrack() throws IOException {
+        TrackBuffer track = new TrackBuffer();
+        GpxReader.read(new KXmlParser(), new ByteArrayInputStream(gpxFile), track);
+        return track;
+    }
+
+    /**
+     * Parsing alone, without keeping the points. The allocation rate is all garbage, so this
+     * is what an import costs beyond the track itself.
+     */
+    @Benchmark
+    public int parseOnly(Blackhole bh) throws IOException {
+        return GpxReader.read(new KXmlParser(), new ByteArrayInputStream(gpxFile), (time, lat, lng, altitude) -> {
+            bh.consume(time);
+            bh.consume(lat);
+            bh.consume(lng);
+            bh.consume(altitude);
+        });
+    }
+}
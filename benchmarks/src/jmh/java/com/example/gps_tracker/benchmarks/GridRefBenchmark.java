@@ -0,0 +1,84 @@
+package com.example.gps_tracker.benchmarks;
+
+import com.example.gps_tracker.vorgeben.LatLng;
+import com.example.gps_tracker.vorgeben.OSGridCodec;
+import com.example.gps_tracker.vorgeben.OSRef;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and formatting of six-figure OS grid references.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridRefBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int points;
+
+    private double[] eastings;
+    private double[] northings;
+    private String[] refs;
+    private String joinedRefs;
+    private StringBuilder buffer;
+
+    @Setup
+    public void setUp() {
+        TrackFixtures track = new TrackFixtures(points);
+        eastings = new double[points];
+        northings = new double[points];
+        refs = new String[points];
+        StringBuilder joined = new StringBuilder(points * 9);
+        for (int i = 0; i < points; i++) {
+            OSRef os = new LatLng(track.lat[i], track.lng[i]).toOSRef();
+            refs[i] = os.toSixFigureString();
+            joined.append(refs[i]).append('\n');
+        }
+        joinedRefs = joined.toString();
+        buffer = new StringBuilder(points * 9);
+        OSGridCodec.parseAll(joinedRefs, 0, joinedRefs.length(), eastings, northings, 0);
+    }
+
+    @Benchmark
+    public void parseOSRef(Blackhole bh) {
+        for (String ref : refs) {
+            bh.consume(new OSRef(ref));
+        }
+    }
+
+    @Benchmark
+    public int parseAll() {
+        return OSGridCodec.parseAll(joinedRefs, 0, joinedRefs.length(), eastings, northings, 0);
+    }
+
+    @Benchmark
+    public void toSixFigureString(Blackhole bh) {
+        for (int i = 0; i < points; i++) {
+            bh.consume(new OSRef(eastings[i], northings[i]).toSixFigureString());
+        }
+    }
+
+    @Benchmark
+    public int formatAll() {
+        buffer.setLength(0);
+        OSGridCodec.formatAll(eastings, northings, 0, points, 6, '\n', buffer);
+        return buffer.length();
+    }
+}
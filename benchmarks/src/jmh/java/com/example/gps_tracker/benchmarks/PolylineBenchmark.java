@@ -0,0 +1,67 @@
+package com.example.gps_tracker.benchmarks;
+
+import com.example.gps_tracker.track.PolylineReader;
+import com.example.gps_tracker.track.PolylineWriter;
+import com.example.gps_tracker.track.TrackBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding the compact polyline export with all channels, for comparison with
+ * {@link GpxExportBenchmark} and {@link GpxImportBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolylineBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int points;
+
+    private TrackBuffer track;
+    private byte[] polyline;
+
+    @Setup
+    public void setUp() throws IOException {
+        track = new TrackFixtures(points).track();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PolylineWriter.write(track, out);
+        polyline = out.toByteArray();
+    }
+
+    @Benchmark
+    public long encode() throws IOException {
+        GpxExportBenchmark.CountingOutputStream sink = new GpxExportBenchmark.CountingOutputStream();
+        PolylineWriter.write(track, sink);
+        return sink.count;
+    }
+
+    @Benchmark
+    public int decode(Blackhole bh) throws IOException {
+        return new PolylineReader(new ByteArrayInputStream(polyline)).read((time, lat, lng, altitude) -> {
+            bh.consume(time);
+            bh.consume(lat);
+            bh.consume(lng);
+            bh.consume(altitude);
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.gps_tracker.benchmarks;
+
+import com.example.gps_tracker.vorgeben.HelmertTransform;
+import com.example.gps_tracker.vorgeben.LatLng;
+import com.example.gps_tracker.vorgeben.PathLength;
+import com.example.gps_tracker.vorgeben.UTMRef;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinate conversions of the vorgeben package over a whole track.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int points;
+
+    private double[] lat;
+    private double[] lng;
+    private double[] shiftedLat;
+    private double[] shiftedLng;
+    private double[] eastings;
+    private double[] northings;
+    private int[] lngZones;
+    private char[] latZones;
+
+    @Setup
+    public void setUp() {
+        TrackFixtures track = new TrackFixtures(points);
+        lat = track.lat;
+        lng = track.lng;
+        eastings = new double[points];
+        northings = new double[points];
+        lngZones = new int[points];
+        latZones = new char[points];
+        shiftedLat = new double[points];
+        shiftedLng = new double[points];
+        LatLng.toUTMRef(lat, lng, 0, points, eastings, northings, lngZones, latZones);
+    }
+
+    @Benchmark
+    public void toUTMRef(Blackhole bh) {
+        for (int i = 0; i < points; i++) {
+            bh.consume(new LatLng(lat[i], lng[i]).toUTMRef());
+        }
+    }
+
+    @Benchmark
+    public void toUTMRefBatch(Blackhole bh) {
+        LatLng.toUTMRef(lat, lng, 0, points, eastings, northings, lngZones, latZones);
+        bh.consume(eastings);
+        bh.consume(northings);
+    }
+
+    @Benchmark
+    public void utmToLatLng(Blackhole bh) {
+        for (int i = 0; i < points; i++) {
+            bh.consume(new UTMRef(eastings[i], northings[i], latZones[i], lngZones[i]).toLatLng());
+        }
+    }
+
+    @Benchmark
+    public void utmToLatLngBatch(Blackhole bh) {
+        UTMRef.toLatLng(eastings, northings, latZones, lngZones, 0, points, shiftedLat, shiftedLng);
+        bh.consume(shiftedLat);
+        bh.consume(shiftedLng);
+    }
+
+    @Benchmark
+    public void toOSRef(Blackhole bh) {
+        for (int i = 0; i < points; i++) {
+            bh.consume(new LatLng(lat[i], lng[i]).toOSRef());
+        }
+    }
+
+    @Benchmark
+    public void toWGS84(Blackhole bh) {
+        for (int i = 0; i < points; i++) {
+            LatLng ll = new LatLng(lat[i], lng[i]);
+            ll.toWGS84();
+            bh.consume(ll);
+        }
+    }
+
+    @Benchmark
+    public void toOSGB36(Blackhole bh) {
+        for (int i = 0; i < points; i++) {
+            LatLng ll = new LatLng(lat[i], lng[i]);
+            ll.toOSGB36();
+            bh.consume(ll);
+        }
+    }
+
+    @Benchmark
+    public void toOSGB36Batch(Blackhole bh) {
+        System.arraycopy(lat, 0, shiftedLat, 0, points);
+        System.arraycopy(lng, 0, shiftedLng, 0, points);
+        HelmertTransform.WGS84_TO_OSGB36.transform(shiftedLat, shiftedLng, 0, points);
+        bh.consume(shiftedLat);
+        bh.consume(shiftedLng);
+    }
+
+    @Benchmark
+    public double distance() {
+        double total = 0;
+        LatLng previous = new LatLng(lat[0], lng[0]);
+        for (int i = 1; i < points; i++) {
+            LatLng current = new LatLng(lat[i], lng[i]);
+            total += previous.distance(current);
+            previous = current;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double cumulativeDistance() {
+        return PathLength.cumulativeDistance(lat, lng, 0, points, shiftedLat);
+    }
+}
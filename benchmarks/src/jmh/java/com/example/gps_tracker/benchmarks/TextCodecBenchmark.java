@@ -0,0 +1,118 @@
+package com.example.gps_tracker.benchmarks;
+
+import com.example.gps_tracker.track.DecimalFormatter;
+import com.example.gps_tracker.track.IsoTimestamp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-point text conversions used by the exporters and importers, against the JDK classes
+ * they replace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextCodecBenchmark {
+
+    @Param({"1000", "100000"})
+    public int points;
+
+    private TrackFixtures track;
+    private String[] timestamps;
+    private char[] buffer;
+    private DecimalFormatter formatter;
+
+    @Setup
+    public void setUp() {
+        track = new TrackFixtures(points);
+        timestamps = new String[points];
+        buffer = new char[IsoTimestamp.LENGTH_MILLIS];
+        formatter = new DecimalFormatter();
+        for (int i = 0; i < points; i++) {
+            int length = IsoTimestamp.format(track.time[i], false, buffer, 0);
+            timestamps[i] = new String(buffer, 0, length);
+        }
+    }
+
+    @Benchmark
+    public void formatTimestamp(Blackhole bh) {
+        for (int i = 0; i < points; i++) {
+            bh.consume(IsoTimestamp.format(track.time[i], false, buffer, 0));
+        }
+    }
+
+    /**
+     * What GPXConverter did before, with one formatter for the whole track.
+     */
+    @Benchmark
+    public void formatTimestampSimpleDateFormat(Blackhole bh) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        for (int i = 0; i < points; i++) {
+            bh.consume(format.format(new Date(track.time[i])));
+        }
+    }
+
+    @Benchmark
+    public void parseTimestamp(Blackhole bh) {
+        for (int i = 0; i < points; i++) {
+            bh.consume(IsoTimestamp.parse(timestamps[i]));
+        }
+    }
+
+    @Benchmark
+    public void parseTimestampSimpleDateFormat(Blackhole bh) throws ParseException {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        for (int i = 0; i < points; i++) {
+            bh.consume(format.parse(timestamps[i]).getTime());
+        }
+    }
+
+    /**
+     * One CSV row per point.
+     */
+    @Benchmark
+    public void formatRow(Blackhole bh) {
+        for (int i = 0; i < points; i++) {
+            formatter.clear()
+                    .append(track.time[i]).append(',')
+                    .append(track.lat[i], 6).append(',')
+                    .append(track.lng[i], 6).append(',')
+                    .append(track.altitude[i], 2);
+            bh.consume(formatter.length());
+        }
+    }
+
+    /**
+     * What onLocationChanged did before for the CSV row.
+     */
+    @Benchmark
+    public void formatRowStringFormat(Blackhole bh) {
+        for (int i = 0; i < points; i++) {
+            bh.consume(String.format(Locale.US, "%d,%.6f,%.6f,%.2f",
+                    track.time[i], track.lat[i], track.lng[i], track.altitude[i]));
+        }
+    }
+}
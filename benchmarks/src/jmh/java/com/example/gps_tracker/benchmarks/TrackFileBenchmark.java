@@ -0,0 +1,96 @@
+package com.example.gps_tracker.benchmarks;
+
+import com.example.gps_tracker.track.MappedTrackFile;
+import com.example.gps_tracker.track.TrackBuffer;
+import com.example.gps_tracker.track.TrackFileReader;
+import com.example.gps_tracker.track.TrackFileWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading and recording the binary track file, for comparison with {@link CsvParseBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrackFileBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int points;
+
+    private TrackFixtures fixtures;
+    private byte[] trackFile;
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        fixtures = new TrackFixtures(points);
+        trackFile = fixtures.trackFile();
+        file = File.createTempFile("track", ".bin");
+        Files.write(file.toPath(), trackFile);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public TrackBuffer loadTrack() throws IOException {
+        TrackBuffer track = new TrackBuffer();
+        try (TrackFileReader reader = new TrackFileReader(new ByteArrayInputStream(trackFile))) {
+            reader.read(track);
+        }
+        return track;
+    }
+
+    @Benchmark
+    public TrackBuffer loadTrackMapped() throws IOException {
+        try (MappedTrackFile mapped = MappedTrackFile.open(file)) {
+            TrackBuffer track = new TrackBuffer(mapped.size());
+            mapped.readAll(track);
+            return track;
+        }
+    }
+
+    /**
+     * Opening and indexing only, as needed before the first random access.
+     */
+    @Benchmark
+    public int openMapped() throws IOException {
+        try (MappedTrackFile mapped = MappedTrackFile.open(file)) {
+            return mapped.size();
+        }
+    }
+
+    @Benchmark
+    public long recordTrack() throws IOException {
+        GpxExportBenchmark.CountingOutputStream sink = new GpxExportBenchmark.CountingOutputStream();
+        try (TrackFileWriter writer = new TrackFileWriter(sink, true)) {
+            for (int i = 0; i < points; i++) {
+                writer.add(fixtures.time[i], fixtures.lat[i], fixtures.lng[i], fixtures.altitude[i]);
+            }
+        }
+        return sink.count;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.gps_tracker.benchmarks;
+
+import com.example.gps_tracker.track.GpxWriter;
+import com.example.gps_tracker.track.TrackBuffer;
+import com.example.gps_tracker.track.TrackCsv;
+import com.example.gps_tracker.track.TrackFileWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic tracks for the benchmarks: a random walk with
+ * roughly five metre steps and one fix per second, starting in East Anglia
+ * so that the OSGB conversions stay inside the national grid.
+ */
+final class TrackFixtures {
+
+    static final long START_TIME = 1_700_000_000_000L;
+
+    final long[] time;
+    final double[] lat;
+    final double[] lng;
+    final double[] altitude;
+
+    TrackFixtures(int points) {
+        time = new long[points];
+        lat = new double[points];
+        lng = new double[points];
+        altitude = new double[points];
+
+        Random random = new Random(42);
+        double la = 52.2053;
+        double lo = 0.1218;
+        double alt = 20.0;
+        for (int i = 0; i < points; i++) {
+            time[i] = START_TIME + i * 1000L;
+            lat[i] = la;
+            lng[i] = lo;
+            altitude[i] = alt;
+            la += (random.nextDouble() - 0.5) * 0.00009;
+            lo += (random.nextDouble() - 0.5) * 0.00015;
+            alt += (random.nextDouble() - 0.5) * 0.5;
+        }
+    }
+
+    int size() {
+        return time.length;
+    }
+
+    /**
+     * The points loaded into a track buffer, as held by the app while recording.
+     */
+    TrackBuffer track() {
+        TrackBuffer track = new TrackBuffer(size());
+        track.addAll(time, lat, lng, altitude, 0, size());
+        return track;
+    }
+
+    /**
+     * Data rows as written by {@code MainActivity.onLocationChanged}.
+     */
+    String[] csvLines() {
+        String[] lines = new String[size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = String.format(Locale.US, "%d,%.6f,%.6f,%.2f", time[i], lat[i], lng[i], altitude[i]);
+        }
+        return lines;
+    }
+
+    /**
+     * The complete CSV file, header included.
+     */
+    byte[] csvFile() {
+        StringBuilder sb = new StringBuilder(size() * 40);
+        sb.append(TrackCsv.HEADER).append('\n');
+        for (String line : csvLines()) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The points as a GPX document, as exported by {@code GPXConverter}.
+     */
+    byte[] gpxFile() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size() * 140);
+        try {
+            GpxWriter.write(track(), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * The points as a binary track file, as recorded by {@code MainActivity}.
+     */
+    byte[] trackFile() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size() * 8);
+        try (TrackFileWriter writer = new TrackFileWriter(out, true)) {
+            for (int i = 0; i < size(); i++) {
+                writer.add(time[i], lat[i], lng[i], altitude[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,15 @@
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_21
+    targetCompatibility = JavaVersion.VERSION_21
+}
+
+dependencies {
+    // XmlPullParser is part of the Android platform; tests and benchmarks use kXML
+    compileOnly(libs.xmlpull)
+    testImplementation(libs.junit)
+    testImplementation(libs.kxml2)
+}
@@ -0,0 +1,46 @@
+package com.example.gps_tracker.track;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a track in the {@link TrackCsv} layout, the same rows as {@link TrackCsv#write}, as
+ * points are added.
+ *
+ * Not thread-safe.
+ */
+public final class CsvWriter implements TrackExporter {
+
+    private final Utf8Output out;
+    private final DecimalFormatter row = new DecimalFormatter();
+    private int points;
+
+    public CsvWriter(OutputStream out) {
+        this.out = new Utf8Output(out);
+    }
+
+    /**
+     * Writes the header line. CSV has no place for the name.
+     */
+    @Override
+    public void begin(String name) throws IOException {
+        out.append(TrackCsv.HEADER).append('\n');
+    }
+
+    @Override
+    public void add(long time, double lat, double lng, double altitude) {
+        try {
+            out.append(TrackCsv.formatRow(time, lat, lng, altitude, row).append('\n'));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        points++;
+    }
+
+    @Override
+    public int end() throws IOException {
+        out.flush();
+        return points;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.gps_tracker.track;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Formats longs and doubles with a fixed number of decimals into a reusable character
+ * buffer, as a replacement for {@code String.format("%.6f")} and friends on hot paths. The
+ * formatter is itself a {@link CharSequence}, so the result can be appended to a
+ * {@link StringBuilder} or {@link Utf8Output}, or its {@link #buffer()} drawn directly.
+ *
+ * Doubles are rounded half up from their exact binary value. That is the correctly rounded
+ * result, which {@code String.format} does not always give: it rounds the shortest decimal
+ * representation instead, so it turns 1.005 (really 1.00499999999999989...) into "1.01",
+ * where this gives "1.00". Output never uses grouping and always uses '.' as the decimal
+ * separator.
+ *
+ * Not thread-safe.
+ */
+public final class DecimalFormatter implements CharSequence {
+
+    public static final int MAX_DECIMALS = 15;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L
+    };
+
+    /** Scaled values below this are converted exactly with double arithmetic. */
+    private static final double FAST_PATH_LIMIT = 0x1p52;
+
+    /** 2^27 + 1, for splitting a double into two halves that multiply exactly. */
+    private static final double SPLITTER = 134_217_729.0;
+
+    private char[] buffer = new char[32];
+    private int length;
+
+    /**
+     * Removes everything appended so far.
+     */
+    public DecimalFormatter clear() {
+        length = 0;
+        return this;
+    }
+
+    public DecimalFormatter append(char c) {
+        ensureCapacity(1);
+        buffer[length++] = c;
+        return this;
+    }
+
+    public DecimalFormatter append(String s) {
+        ensureCapacity(s.length());
+        s.getChars(0, s.length(), buffer, length);
+        length += s.length();
+        return this;
+    }
+
+    public DecimalFormatter append(long value) {
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+        }
+        appendDigits(value);
+        return this;
+    }
+
+    /**
+     * Appends {@code value} rounded half up to {@code decimals} digits after the point.
+     *
+     * @throws IllegalArgumentException if decimals is negative or more than {@link #MAX_DECIMALS}
+     */
+    public DecimalFormatter append(double value, int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Decimals out of range: " + decimals);
+        }
+        if (Double.isNaN(value)) {
+            return append("NaN");
+        }
+        if (Double.isInfinite(value)) {
+            return append(value > 0 ? "Infinity" : "-Infinity");
+        }
+
+        double magnitude = Math.abs(value);
+        double scale = POWERS_OF_TEN[decimals];
+        double product = magnitude * scale;
+        if (product >= FAST_PATH_LIMIT) {
+            return append(new BigDecimal(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+        }
+
+        // product + error is exactly magnitude * scale (Dekker's two-product)
+        double error = productError(magnitude, scale, product);
+        long units = (long) product;
+        double rest = (product - units) - 0.5;
+        if (rest + error >= 0) {
+            units++;
+        }
+
+        ensureCapacity(decimals + 20);
+        if (Math.copySign(1.0, value) < 0) {
+            buffer[length++] = '-';
+        }
+        appendDigits(units / POWERS_OF_TEN[decimals]);
+        if (decimals > 0) {
+            buffer[length++] = '.';
+            long fraction = units % POWERS_OF_TEN[decimals];
+            for (int i = length + decimals - 1; i >= length; i--) {
+                buffer[i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            length += decimals;
+        }
+        return this;
+    }
+
+    /**
+     * The characters appended so far are the first {@link #length()} elements. The array is
+     * replaced when the formatter has to grow.
+     */
+    public char[] buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", length: " + length);
+        }
+        return buffer[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Appends the digits of {@code value}, ignoring its sign.
+     */
+    private void appendDigits(long value) {
+        int digits = 1;
+        for (long v = value / 10; v != 0; v /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + Math.abs(value % 10));
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    /**
+     * Returns a * b - product exactly, where product is the rounded a * b.
+     */
+    private static double productError(double a, double b, double product) {
+        double c = SPLITTER * a;
+        double aHigh = c - (c - a);
+        double aLow = a - aHigh;
+        c = SPLITTER * b;
+        double bHigh = c - (c - b);
+        double bLow = b - bHigh;
+        return ((aHigh * bHigh - product) + aHigh * bLow + aLow * bHigh) + aLow * bLow;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(length + extra, buffer.length * 2));
+        }
+    }
+}
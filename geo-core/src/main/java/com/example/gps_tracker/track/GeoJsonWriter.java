@@ -0,0 +1,88 @@
+package com.example.gps_tracker.track;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Writes a track as a GeoJSON (RFC 7946) feature collection with a single {@code LineString}
+ * feature. Positions are {@code [longitude, latitude, altitude]}, and the fix times go into
+ * the {@code coordTimes} property as ISO 8601 strings, as GPX converters commonly do.
+ *
+ * Positions are written as points are added. The times follow the coordinates in the
+ * document, so they are kept until {@link #end()}, 8 bytes per point.
+ *
+ * Not thread-safe.
+ */
+public final class GeoJsonWriter implements TrackExporter {
+
+    private final Utf8Output out;
+    private final char[] scratch = new char[IsoTimestamp.LENGTH_MILLIS];
+    private final DecimalFormatter numbers = new DecimalFormatter();
+    private long[] times = new long[256];
+    private int points;
+    private String name;
+
+    public GeoJsonWriter(OutputStream out) {
+        this.out = new Utf8Output(out);
+    }
+
+    @Override
+    public void begin(String name) throws IOException {
+        this.name = name;
+        out.append("{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",\n");
+        out.append("\"geometry\":{\"type\":\"LineString\",\"coordinates\":[");
+    }
+
+    @Override
+    public void add(long time, double lat, double lng, double altitude) {
+        try {
+            out.append(points == 0 ? "\n[" : ",\n[")
+                    .append(numbers.clear().append(lng, 6)).append(',')
+                    .append(numbers.clear().append(lat, 6)).append(',')
+                    .append(numbers.clear().append(altitude, 2)).append(']');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (points == times.length) {
+            times = Arrays.copyOf(times, points + (points >> 1));
+        }
+        times[points++] = time;
+    }
+
+    @Override
+    public int end() throws IOException {
+        out.append("]},\n\"properties\":{\"name\":");
+        appendString(name);
+        out.append(",\"coordTimes\":[");
+        for (int i = 0; i < points; i++) {
+            out.append(i == 0 ? "\n\"" : ",\n\"");
+            out.appendAscii(scratch, 0, IsoTimestamp.format(times[i], false, scratch, 0));
+            out.append('"');
+        }
+        out.append("]}}]}\n");
+        out.flush();
+        return points;
+    }
+
+    private void appendString(String text) throws IOException {
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            out.append(text, start, i).append('\\');
+            if (c == '"' || c == '\\') {
+                out.append(c);
+            } else {
+                out.append(String.format(Locale.ROOT, "u%04x", (int) c));
+            }
+            start = i + 1;
+        }
+        out.append(text, start, text.length()).append('"');
+    }
+}
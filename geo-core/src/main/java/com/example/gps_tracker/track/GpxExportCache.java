@@ -0,0 +1,108 @@
+package com.example.gps_tracker.track;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+/**
+ * Keeps the track points of the last GPX export encoded in a file, so that exporting the same
+ * track again only encodes the points added since and copies the rest as bytes. The document
+ * is the same as the one {@link GpxWriter#write} produces.
+ *
+ * The cache is reused as long as the track still starts with the points it holds: it must
+ * have the same key, at least as many points, and the same last cached point. Anything else,
+ * such as another session or a track that was cleared, starts the file over. The state is only
+ * kept in memory, so the first export after a restart encodes the whole track.
+ *
+ * Not thread-safe.
+ */
+public final class GpxExportCache {
+
+    private final File bodyFile;
+
+    private long key;
+    private int points = -1;
+    private long bodyLength;
+    private long lastTime;
+    private double lastLat;
+    private double lastLng;
+    private double lastAltitude;
+    private int reusedCount;
+
+    /**
+     * @param bodyFile file for the encoded track points, such as one in the app's cache directory
+     */
+    public GpxExportCache(File bodyFile) {
+        this.bodyFile = bodyFile;
+    }
+
+    /**
+     * Writes all points of {@code track} as a GPX document to {@code out}, which is left open.
+     *
+     * @param key identifies the track, such as the id of its session
+     * @return the number of track points written
+     */
+    public int write(long key, TrackBuffer track, OutputStream out) throws IOException {
+        int size = track.size();
+        boolean append = matches(key, track);
+        int from = append ? points : 0;
+
+        // Invalid until the new points are written in full
+        points = -1;
+        try (OutputStream body = new FileOutputStream(bodyFile, append)) {
+            GpxWriter writer = new GpxWriter(body);
+            try {
+                for (int i = from; i < size; i++) {
+                    writer.add(track.time(i), track.lat(i), track.lng(i), track.altitude(i));
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        }
+        this.key = key;
+        points = size;
+        bodyLength = bodyFile.length();
+        reusedCount = from;
+        if (size > 0) {
+            lastTime = track.time(size - 1);
+            lastLat = track.lat(size - 1);
+            lastLng = track.lng(size - 1);
+            lastAltitude = track.altitude(size - 1);
+        }
+
+        GpxWriter document = new GpxWriter(out);
+        document.begin("Track");
+        document.flush();
+        Files.copy(bodyFile.toPath(), out);
+        document.end();
+        return size;
+    }
+
+    /**
+     * Number of points the last {@link #write} took from the cache instead of encoding them.
+     */
+    public int getReusedCount() {
+        return reusedCount;
+    }
+
+    /**
+     * Forgets the cached points and deletes the file.
+     */
+    public void clear() {
+        points = -1;
+        bodyFile.delete();
+    }
+
+    private boolean matches(long key, TrackBuffer track) {
+        if (points <= 0 || key != this.key || points > track.size() || bodyFile.length() != bodyLength) {
+            return false;
+        }
+        int last = points - 1;
+        return track.time(last) == lastTime && track.lat(last) == lastLat && track.lng(last) == lastLng
+                && track.altitude(last) == lastAltitude;
+    }
+}
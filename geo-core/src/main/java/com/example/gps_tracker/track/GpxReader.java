@@ -0,0 +1,115 @@
+package com.example.gps_tracker.track;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the track points of a GPX 1.0 or 1.1 document with an {@link XmlPullParser}, the
+ * streaming parser that comes with Android. Points are passed to a {@link TrackSink} as soon
+ * as their {@code trkpt} element ends, so no document tree is built and memory use does not
+ * depend on the size of the file.
+ *
+ * Only {@code trkpt} elements and their {@code ele} and {@code time} children are read;
+ * waypoints, routes and extensions are skipped. A point without {@code ele} gets altitude 0,
+ * like a fix without altitude, and a point without {@code time} gets the time of the point
+ * before it.
+ */
+public final class GpxReader {
+
+    private static final String GPX_NAMESPACE_PREFIX = "http://www.topografix.com/GPX/";
+
+    private GpxReader() {
+    }
+
+    /**
+     * Parses the document in {@code in} and passes its track points to {@code sink}. The
+     * parser must not have been used yet; its encoding is detected from the document.
+     *
+     * @return the number of points passed to the sink
+     * @throws IOException if the stream cannot be read, is not well-formed XML or holds a
+     *                     track point with missing or invalid values
+     */
+    public static int read(XmlPullParser parser, InputStream in, TrackSink sink) throws IOException {
+        try {
+            parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true);
+            parser.setInput(in, null);
+            return readPoints(parser, sink);
+        } catch (XmlPullParserException e) {
+            throw new IOException("Invalid GPX document: " + e.getMessage(), e);
+        }
+    }
+
+    private static int readPoints(XmlPullParser parser, TrackSink sink) throws IOException, XmlPullParserException {
+        int points = 0;
+        long time = 0;
+        for (int event = parser.next(); event != XmlPullParser.END_DOCUMENT; event = parser.next()) {
+            if (event != XmlPullParser.START_TAG || !isGpx(parser, "trkpt")) {
+                continue;
+            }
+            double lat = coordinate(parser, "lat", 90);
+            double lng = coordinate(parser, "lon", 180);
+            double altitude = 0;
+
+            int depth = parser.getDepth();
+            while ((event = parser.next()) != XmlPullParser.END_TAG || parser.getDepth() > depth) {
+                if (event == XmlPullParser.END_DOCUMENT) {
+                    throw new IOException("Document ends inside a track point");
+                }
+                if (event != XmlPullParser.START_TAG || parser.getDepth() != depth + 1) {
+                    continue;
+                }
+                if (isGpx(parser, "ele")) {
+                    altitude = number(parser, "ele", parser.nextText());
+                } else if (isGpx(parser, "time")) {
+                    String text = parser.nextText().trim();
+                    try {
+                        time = IsoTimestamp.parse(text);
+                    } catch (IllegalArgumentException e) {
+                        throw invalid(parser, "time", text);
+                    }
+                }
+            }
+
+            sink.add(time, lat, lng, altitude);
+            points++;
+        }
+        return points;
+    }
+
+    private static boolean isGpx(XmlPullParser parser, String name) {
+        String namespace = parser.getNamespace();
+        return name.equals(parser.getName())
+                && (namespace.isEmpty() || namespace.startsWith(GPX_NAMESPACE_PREFIX));
+    }
+
+    private static double coordinate(XmlPullParser parser, String name, double limit) throws IOException {
+        String text = parser.getAttributeValue(null, name);
+        if (text == null) {
+            throw new IOException("Track point without " + name + " at line " + parser.getLineNumber());
+        }
+        double value = number(parser, name, text);
+        if (!(Math.abs(value) <= limit)) {
+            throw invalid(parser, name, text);
+        }
+        return value;
+    }
+
+    private static double number(XmlPullParser parser, String name, String text) throws IOException {
+        try {
+            double value = Double.parseDouble(text);
+            if (Double.isFinite(value)) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw invalid(parser, name, text);
+    }
+
+    private static IOException invalid(XmlPullParser parser, String name, String text) {
+        return new IOException("Invalid " + name + " at line " + parser.getLineNumber() + ": " + text);
+    }
+}
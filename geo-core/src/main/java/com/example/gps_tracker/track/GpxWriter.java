@@ -0,0 +1,128 @@
+package com.example.gps_tracker.track;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a track as a GPX 1.1 document. Points are encoded as they are added and written
+ * through a {@link Utf8Output}, so the document is never held in memory. Since
+ * {@link TrackSink#add} cannot throw checked exceptions, write failures from {@code add} are
+ * rethrown as an {@link UncheckedIOException}.
+ *
+ * Not thread-safe.
+ */
+public final class GpxWriter implements TrackExporter, Flushable {
+
+    private final Utf8Output out;
+    private final char[] scratch = new char[IsoTimestamp.LENGTH_MILLIS];
+    private final DecimalFormatter numbers = new DecimalFormatter();
+    private int points;
+
+    public GpxWriter(OutputStream out) {
+        this.out = new Utf8Output(out);
+    }
+
+    /**
+     * Writes all points of {@code track} as a GPX document to {@code out}.
+     *
+     * @return the number of track points written
+     */
+    public static int write(TrackBuffer track, OutputStream out) throws IOException {
+        GpxWriter writer = new GpxWriter(out);
+        writer.begin("Track");
+        int size = track.size();
+        try {
+            for (int i = 0; i < size; i++) {
+                writer.add(track.time(i), track.lat(i), track.lng(i), track.altitude(i));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return writer.end();
+    }
+
+    /**
+     * Writes everything up to the first track point.
+     */
+    @Override
+    public void begin(String name) throws IOException {
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\" ?>\n");
+        out.append("<gpx version=\"1.1\" creator=\"GPS-Tracker\">\n");
+        out.append("  <trk>\n");
+        out.append("    <name>");
+        appendEscaped(out, name);
+        out.append("</name>\n");
+        out.append("    <trkseg>\n");
+    }
+
+    @Override
+    public void add(long time, double lat, double lng, double altitude) {
+        try {
+            out.append("      <trkpt lat=\"").append(numbers.clear().append(lat, 6))
+                    .append("\" lon=\"").append(numbers.clear().append(lng, 6)).append("\">\n");
+            out.append("        <ele>").append(numbers.clear().append(altitude, 2)).append("</ele>\n");
+            out.append("        <time>");
+            out.appendAscii(scratch, 0, IsoTimestamp.format(time, false, scratch, 0));
+            out.append("</time>\n");
+            out.append("      </trkpt>\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        points++;
+    }
+
+    /**
+     * Writes the buffered characters to the stream and flushes it, without closing the
+     * document.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Closes the document and flushes it to the stream, which is left open.
+     *
+     * @return the number of track points written
+     */
+    @Override
+    public int end() throws IOException {
+        out.append("    </trkseg>\n");
+        out.append("  </trk>\n");
+        out.append("</gpx>\n");
+        out.flush();
+        return points;
+    }
+
+    /**
+     * Appends {@code text} with the characters that are special in XML text and attribute
+     * values replaced by entities.
+     */
+    static void appendEscaped(Utf8Output out, String text) throws IOException {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            String entity;
+            switch (text.charAt(i)) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '"':
+                    entity = "&quot;";
+                    break;
+                default:
+                    continue;
+            }
+            out.append(text, start, i).append(entity);
+            start = i + 1;
+        }
+        out.append(text, start, text.length());
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.gps_tracker.track;
+
+/**
+ * Formats and parses UTC timestamps of the form {@code yyyy-MM-ddTHH:mm:ssZ} or
+ * {@code yyyy-MM-ddTHH:mm:ss.SSSZ}, as used by GPX, to and from milliseconds since the
+ * epoch. Dates are converted with plain integer arithmetic on the proleptic Gregorian
+ * calendar, so nothing is allocated and no time zone data is consulted.
+ */
+public final class IsoTimestamp {
+
+    /** Length of a timestamp without milliseconds. */
+    public static final int LENGTH = 20;
+
+    /** Length of a timestamp with milliseconds. */
+    public static final int LENGTH_MILLIS = 24;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /** Days from 0000-03-01 to 1970-01-01. */
+    private static final long EPOCH_DAY_OFFSET = 719_468L;
+
+    /** 0000-01-01T00:00:00Z and 10000-01-01T00:00:00Z, the range with four digit years. */
+    private static final long MIN_MILLIS = -62_167_219_200_000L;
+    private static final long MAX_MILLIS = 253_402_300_800_000L;
+
+    private IsoTimestamp() {
+    }
+
+    /**
+     * Writes {@code epochMillis} to {@code buffer} at {@code offset}.
+     *
+     * @param millis whether to include the milliseconds
+     * @return the offset after the last character written
+     * @throws IllegalArgumentException if the year is not between 0 and 9999
+     */
+    public static int format(long epochMillis, boolean millis, char[] buffer, int offset) {
+        return format(epochMillis, millis, buffer, null, offset);
+    }
+
+    /**
+     * Writes {@code epochMillis} to {@code buffer} at {@code offset} as ASCII.
+     *
+     * @see #format(long, boolean, char[], int)
+     */
+    public static int format(long epochMillis, boolean millis, byte[] buffer, int offset) {
+        return format(epochMillis, millis, null, buffer, offset);
+    }
+
+    /**
+     * Writes to whichever of {@code chars} and {@code bytes} is not null.
+     */
+    private static int format(long epochMillis, boolean millis, char[] chars, byte[] bytes, int offset) {
+        if (epochMillis < MIN_MILLIS || epochMillis >= MAX_MILLIS) {
+            throw new IllegalArgumentException("Year out of range: " + epochMillis);
+        }
+        long days = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+
+        // Civil date from day number, with years starting on 1 March (H. Hinnant)
+        long z = days + EPOCH_DAY_OFFSET;
+        long era = Math.floorDiv(z, 146_097);
+        int dayOfEra = (int) (z - era * 146_097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+        int seconds = millisOfDay / 1000;
+        int p = offset;
+        p = putDigits(chars, bytes, p, year, 4);
+        put(chars, bytes, p++, '-');
+        p = putDigits(chars, bytes, p, month, 2);
+        put(chars, bytes, p++, '-');
+        p = putDigits(chars, bytes, p, day, 2);
+        put(chars, bytes, p++, 'T');
+        p = putDigits(chars, bytes, p, seconds / 3600, 2);
+        put(chars, bytes, p++, ':');
+        p = putDigits(chars, bytes, p, seconds / 60 % 60, 2);
+        put(chars, bytes, p++, ':');
+        p = putDigits(chars, bytes, p, seconds % 60, 2);
+        if (millis) {
+            put(chars, bytes, p++, '.');
+            p = putDigits(chars, bytes, p, millisOfDay % 1000, 3);
+        }
+        put(chars, bytes, p++, 'Z');
+        return p;
+    }
+
+    /**
+     * Parses a timestamp. Besides the formatted forms, any number of fraction digits (beyond
+     * milliseconds they are ignored) and offsets of the form {@code +hh:mm} or {@code +hhmm} are
+     * accepted.
+     *
+     * @return milliseconds since the epoch
+     * @throws IllegalArgumentException if the text between {@code start} and {@code end} is not
+     *                                  a timestamp
+     */
+    public static long parse(CharSequence s, int start, int end) {
+        // Fixed fields first
+        if (end - start < LENGTH || s.charAt(start + 4) != '-' || s.charAt(start + 7) != '-'
+                || (s.charAt(start + 10) != 'T' && s.charAt(start + 10) != 't')
+                || s.charAt(start + 13) != ':' || s.charAt(start + 16) != ':') {
+            throw invalid(s, start, end);
+        }
+        int year = digits(s, start, 4, end);
+        int month = digits(s, start + 5, 2, end);
+        int day = digits(s, start + 8, 2, end);
+        int hour = digits(s, start + 11, 2, end);
+        int minute = digits(s, start + 14, 2, end);
+        int second = digits(s, start + 17, 2, end);
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            throw invalid(s, start, end);
+        }
+
+        int p = start + 19;
+        int millis = 0;
+        if (s.charAt(p) == '.') {
+            p++;
+            int fractionStart = p;
+            while (p < end && isDigit(s.charAt(p))) {
+                if (p - fractionStart < 3) {
+                    millis = millis * 10 + (s.charAt(p) - '0');
+                }
+                p++;
+            }
+            if (p == fractionStart) {
+                throw invalid(s, start, end);
+            }
+            for (int i = p - fractionStart; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+
+        int offsetMinutes;
+        char zone = p < end ? s.charAt(p) : 0;
+        if ((zone == 'Z' || zone == 'z') && p + 1 == end) {
+            offsetMinutes = 0;
+        } else if ((zone == '+' || zone == '-') && (end - p == 6 && s.charAt(p + 3) == ':' || end - p == 5)) {
+            int hours = digits(s, p + 1, 2, end);
+            int minutes = digits(s, end - 2, 2, end);
+            if (hours > 23 || minutes > 59) {
+                throw invalid(s, start, end);
+            }
+            offsetMinutes = (hours * 60 + minutes) * (zone == '-' ? -1 : 1);
+        } else {
+            throw invalid(s, start, end);
+        }
+
+        // Day number from civil date, the inverse of format
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long days = era * 146_097L + dayOfEra - EPOCH_DAY_OFFSET;
+
+        return days * MILLIS_PER_DAY + ((hour * 60L + minute - offsetMinutes) * 60 + second) * 1000 + millis;
+    }
+
+    public static long parse(CharSequence s) {
+        return parse(s, 0, s.length());
+    }
+
+    private static void put(char[] chars, byte[] bytes, int offset, char c) {
+        if (chars != null) {
+            chars[offset] = c;
+        } else {
+            bytes[offset] = (byte) c;
+        }
+    }
+
+    private static int putDigits(char[] chars, byte[] bytes, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            put(chars, bytes, i, (char) ('0' + value % 10));
+            value /= 10;
+        }
+        return offset + count;
+    }
+
+    private static int digits(CharSequence s, int offset, int count, int end) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = i < end ? s.charAt(i) : 0;
+            if (!isDigit(c)) {
+                throw invalid(s, offset, end);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence s, int start, int end) {
+        return new IllegalArgumentException("Invalid timestamp: " + s.subSequence(start, Math.min(end, s.length())));
+    }
+}
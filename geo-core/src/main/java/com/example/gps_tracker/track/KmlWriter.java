@@ -0,0 +1,61 @@
+package com.example.gps_tracker.track;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a track as a KML 2.2 document with a single placemark holding a {@code LineString}
+ * with absolute altitudes, as points are added. KML keeps the path only: times would need a
+ * {@code gx:Track}, which lists all times before all coordinates and so cannot be streamed.
+ *
+ * Not thread-safe.
+ */
+public final class KmlWriter implements TrackExporter {
+
+    private final Utf8Output out;
+    private final DecimalFormatter numbers = new DecimalFormatter();
+    private int points;
+
+    public KmlWriter(OutputStream out) {
+        this.out = new Utf8Output(out);
+    }
+
+    @Override
+    public void begin(String name) throws IOException {
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.append("<kml xmlns=\"http://www.opengis.net/kml/2.2\">\n");
+        out.append("  <Document>\n");
+        out.append("    <Placemark>\n");
+        out.append("      <name>");
+        GpxWriter.appendEscaped(out, name);
+        out.append("</name>\n");
+        out.append("      <LineString>\n");
+        out.append("        <altitudeMode>absolute</altitudeMode>\n");
+        out.append("        <coordinates>\n");
+    }
+
+    @Override
+    public void add(long time, double lat, double lng, double altitude) {
+        try {
+            out.append(numbers.clear()
+                    .append(lng, 6).append(',')
+                    .append(lat, 6).append(',')
+                    .append(altitude, 2).append('\n'));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        points++;
+    }
+
+    @Override
+    public int end() throws IOException {
+        out.append("        </coordinates>\n");
+        out.append("      </LineString>\n");
+        out.append("    </Placemark>\n");
+        out.append("  </Document>\n");
+        out.append("</kml>\n");
+        out.flush();
+        return points;
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.gps_tracker.track;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only view of a binary track file, see {@link TrackFile}, mapped into memory with
+ * {@link FileChannel#map}. Opening the file only walks the block headers and checks the
+ * checksums to build an index of the blocks; points are decoded from the mapping when they
+ * are asked for, one block at a time.
+ *
+ * Not thread-safe. The view covers the file as it was when it was opened.
+ */
+public final class MappedTrackFile implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    private final int blockCount;
+    private final int[] payloadOffset;
+    private final int[] payloadLength;
+    /** Index of the first point of each block, with the total number of points at the end. */
+    private final int[] firstPoint;
+    private final long validLength;
+    private final boolean truncated;
+
+    private final byte[] scratch = new byte[TrackFile.MAX_BLOCK_POINTS * TrackFile.MAX_POINT_BYTES];
+    private final BlockCache cache = new BlockCache();
+
+    private MappedTrackFile(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+
+        int limit = buffer.limit();
+        if (limit < TrackFile.HEADER_SIZE) {
+            throw new IOException("Track file is shorter than its header");
+        }
+        for (int i = 0; i < TrackFile.MAGIC.length; i++) {
+            if (buffer.get(i) != TrackFile.MAGIC[i]) {
+                throw new IOException("Not a track file");
+            }
+        }
+        if (buffer.get(TrackFile.MAGIC.length) > TrackFile.VERSION) {
+            throw new IOException("Unsupported track file version " + buffer.get(TrackFile.MAGIC.length));
+        }
+
+        int[] offsets = new int[16];
+        int[] lengths = new int[16];
+        int[] first = new int[17];
+        int blocks = 0;
+        int points = 0;
+        int position = TrackFile.HEADER_SIZE;
+        boolean damaged = false;
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        long[] varint = new long[2];
+        while (position < limit) {
+            int p = getVarint(buffer, position, limit, varint, 0);
+            p = p < 0 ? p : getVarint(buffer, p, limit, varint, 1);
+            long count = varint[0];
+            long length = varint[1];
+            // A ten byte varint can decode to a negative count or length
+            if (p < 0 || count <= 0 || count > TrackFile.MAX_BLOCK_POINTS
+                    || length < 0 || length > scratch.length || p + length + 4 > limit) {
+                damaged = true;
+                break;
+            }
+            int end = p + (int) length;
+            view.limit(end);
+            view.position(position);
+            crc.reset();
+            crc.update(view);
+            if ((int) crc.getValue() != buffer.getInt(end)) {
+                damaged = true;
+                break;
+            }
+            if (blocks == offsets.length) {
+                offsets = Arrays.copyOf(offsets, blocks * 2);
+                lengths = Arrays.copyOf(lengths, blocks * 2);
+                first = Arrays.copyOf(first, blocks * 2 + 1);
+            }
+            offsets[blocks] = p;
+            lengths[blocks] = (int) length;
+            first[blocks] = points;
+            blocks++;
+            points += (int) count;
+            position = end + 4;
+        }
+        first[blocks] = points;
+
+        this.blockCount = blocks;
+        this.payloadOffset = offsets;
+        this.payloadLength = lengths;
+        this.firstPoint = first;
+        this.validLength = position;
+        this.truncated = damaged;
+    }
+
+    /**
+     * Maps {@code file} and indexes its blocks.
+     *
+     * @throws IOException if the file cannot be read or is not a track file
+     */
+    public static MappedTrackFile open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedTrackFile(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return firstPoint[blockCount];
+    }
+
+    public int blockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Length of the file up to the end of the last intact block.
+     */
+    public long getValidLength() {
+        return validLength;
+    }
+
+    /**
+     * Whether indexing stopped at a damaged or incomplete block rather than at the end of the file.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public long time(int index) {
+        return cache.time[load(index)];
+    }
+
+    public double lat(int index) {
+        return cache.lat[load(index)];
+    }
+
+    public double lng(int index) {
+        return cache.lng[load(index)];
+    }
+
+    public double altitude(int index) {
+        return cache.altitude[load(index)];
+    }
+
+    /**
+     * Returns the block that holds the point at {@code index}.
+     */
+    public int blockOf(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        int block = Arrays.binarySearch(firstPoint, 0, blockCount, index);
+        return block >= 0 ? block : -block - 2;
+    }
+
+    /**
+     * Passes the points {@code from} (inclusive) to {@code to} (exclusive) to {@code sink},
+     * decoding only the blocks that hold them.
+     */
+    public void read(int from, int to, TrackSink sink) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", size: " + size());
+        }
+        if (from == to) {
+            return;
+        }
+        for (int block = blockOf(from); block < blockCount && firstPoint[block] < to; block++) {
+            int start = firstPoint[block];
+            int end = firstPoint[block + 1];
+            if (start >= from && end <= to) {
+                decode(block, sink);
+            } else {
+                int index = load(Math.max(from, start));
+                int last = Math.min(to, end) - start;
+                for (int i = index; i < last; i++) {
+                    sink.add(cache.time[i], cache.lat[i], cache.lng[i], cache.altitude[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes all points to {@code sink}.
+     *
+     * @return the number of points
+     */
+    public int readAll(TrackSink sink) {
+        for (int block = 0; block < blockCount; block++) {
+            decode(block, sink);
+        }
+        return size();
+    }
+
+    /**
+     * Closes the file. The mapping itself is released when it is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Decodes the block holding {@code index} into the cache unless it is already there.
+     *
+     * @return the position of the point within the cached block
+     */
+    private int load(int index) {
+        int block = cache.block;
+        if (block < 0 || index < firstPoint[block] || index >= firstPoint[block + 1]) {
+            block = blockOf(index);
+            cache.size = 0;
+            cache.block = -1;
+            decode(block, cache);
+            cache.block = block;
+        }
+        return index - firstPoint[block];
+    }
+
+    private void decode(int block, TrackSink sink) {
+        // Copying the payload is a single bulk read and lets the stream reader's decoder be shared
+        ByteBuffer view = buffer.duplicate();
+        view.position(payloadOffset[block]);
+        view.get(scratch, 0, payloadLength[block]);
+        TrackFileReader.decode(scratch, 0, firstPoint[block + 1] - firstPoint[block], sink);
+    }
+
+    /**
+     * Reads an unsigned varint at {@code position} into {@code out[index]}.
+     *
+     * @return the position after the varint, or -1 if it runs past {@code limit}
+     */
+    private static int getVarint(ByteBuffer buffer, int position, int limit, long[] out, int index) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) {
+                return -1;
+            }
+            int b = buffer.get(position++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                out[index] = value;
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * One decoded block.
+     */
+    private static final class BlockCache implements TrackSink {
+        final long[] time = new long[TrackFile.MAX_BLOCK_POINTS];
+        final double[] lat = new double[TrackFile.MAX_BLOCK_POINTS];
+        final double[] lng = new double[TrackFile.MAX_BLOCK_POINTS];
+        final double[] altitude = new double[TrackFile.MAX_BLOCK_POINTS];
+        int size;
+        int block = -1;
+
+        @Override
+        public void add(long time, double lat, double lng, double altitude) {
+            this.time[size] = time;
+            this.lat[size] = lat;
+            this.lng[size] = lng;
+            this.altitude[size] = altitude;
+            size++;
+        }
+    }
+}
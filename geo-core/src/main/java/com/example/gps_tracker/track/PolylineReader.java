@@ -0,0 +1,131 @@
+package com.example.gps_tracker.track;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams the points of a track in the {@link TrackPolyline} format into a {@link TrackSink}.
+ * Only a fixed buffer of the input is held in memory. Points without a time channel get time
+ * 0, and points without an elevation channel altitude 0.
+ */
+public final class PolylineReader {
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private int limit;
+
+    private int channels;
+    private int decimals;
+
+    public PolylineReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Passes all points to {@code sink}. Whitespace between points, such as a final line
+     * break, is ignored.
+     *
+     * @return the number of points passed to the sink
+     * @throws IOException if the stream fails, is not in the polyline format or ends inside a point
+     */
+    public int read(TrackSink sink) throws IOException {
+        readHeader();
+        boolean hasTime = (channels & TrackPolyline.TIME) != 0;
+        boolean hasElevation = (channels & TrackPolyline.ELEVATION) != 0;
+        double scale = TrackPolyline.scale(decimals);
+
+        long lat = 0;
+        long lng = 0;
+        long time = 0;
+        long interval = 0;
+        long elevation = 0;
+        int points = 0;
+        while (true) {
+            if (position == limit && !fill()) {
+                return points;
+            }
+            if (isWhitespace(buffer[position])) {
+                position++;
+                continue;
+            }
+            lat += nextValue();
+            lng += nextValue();
+            if (hasTime) {
+                long value = nextValue();
+                if (points == 0) {
+                    time = value;
+                } else {
+                    interval += value;
+                    time += interval;
+                }
+            }
+            if (hasElevation) {
+                elevation += nextValue();
+            }
+            sink.add(time, lat / scale, lng / scale, elevation / TrackPolyline.ELEVATION_SCALE);
+            points++;
+        }
+    }
+
+    /**
+     * The channels of the track, after {@link #read}.
+     */
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * The number of coordinate decimals of the track, after {@link #read}.
+     */
+    public int getDecimals() {
+        return decimals;
+    }
+
+    private void readHeader() throws IOException {
+        while (limit < TrackPolyline.HEADER_SIZE) {
+            int n = in.read(buffer, limit, buffer.length - limit);
+            if (n < 0) {
+                throw new IOException("Polyline is shorter than its header");
+            }
+            limit += n;
+        }
+        channels = buffer[2] - '0';
+        decimals = buffer[3] - '0';
+        if (buffer[0] != TrackPolyline.MAGIC[0] || buffer[1] != TrackPolyline.MAGIC[1]
+                || channels < 0 || (channels & ~TrackPolyline.ALL_CHANNELS) != 0
+                || decimals < 0 || decimals > TrackPolyline.MAX_DECIMALS) {
+            throw new IOException("Not a track polyline");
+        }
+        position = TrackPolyline.HEADER_SIZE;
+    }
+
+    private long nextValue() throws IOException {
+        long bits = 0;
+        for (int shift = 0; shift < 65; shift += 5) {
+            if (position == limit && !fill()) {
+                throw new IOException("Polyline ends inside a point");
+            }
+            int c = buffer[position++] - 63;
+            if (c < 0 || c > 63) {
+                throw new IOException("Invalid polyline character: " + (char) (c + 63));
+            }
+            bits |= (long) (c & 0x1F) << shift;
+            if (c < 0x20) {
+                return TrackFile.unzigzag(bits);
+            }
+        }
+        throw new IOException("Polyline value is too long");
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(n, 0);
+        return n > 0;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == '\n' || b == '\r' || b == ' ' || b == '\t';
+    }
+}
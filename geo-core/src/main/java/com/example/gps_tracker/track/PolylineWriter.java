@@ -0,0 +1,128 @@
+package com.example.gps_tracker.track;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a track in the {@link TrackPolyline} format. Points are encoded into a fixed buffer
+ * that is written to the stream whenever it fills up. Since {@link TrackSink#add} cannot throw
+ * checked exceptions, write failures from {@code add} are rethrown as an
+ * {@link UncheckedIOException}.
+ *
+ * Not thread-safe.
+ */
+public final class PolylineWriter implements TrackSink, Flushable {
+
+    private final OutputStream out;
+    private final int channels;
+    private final double scale;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private int points;
+
+    private long lastLat;
+    private long lastLng;
+    private long lastTime;
+    private long lastInterval;
+    private long lastElevation;
+
+    /**
+     * Writes the header.
+     *
+     * @param channels the optional channels to include, a combination of
+     *                 {@link TrackPolyline#TIME} and {@link TrackPolyline#ELEVATION}
+     * @param decimals the number of decimals kept of the coordinates, at most
+     *                 {@link TrackPolyline#MAX_DECIMALS}
+     */
+    public PolylineWriter(OutputStream out, int channels, int decimals) throws IOException {
+        if ((channels & ~TrackPolyline.ALL_CHANNELS) != 0) {
+            throw new IllegalArgumentException("Unknown channels: " + channels);
+        }
+        if (decimals < 0 || decimals > TrackPolyline.MAX_DECIMALS) {
+            throw new IllegalArgumentException("Decimals out of range: " + decimals);
+        }
+        this.out = out;
+        this.channels = channels;
+        this.scale = TrackPolyline.scale(decimals);
+        buffer[0] = TrackPolyline.MAGIC[0];
+        buffer[1] = TrackPolyline.MAGIC[1];
+        buffer[2] = (byte) ('0' + channels);
+        buffer[3] = (byte) ('0' + decimals);
+        position = TrackPolyline.HEADER_SIZE;
+    }
+
+    /**
+     * Writes all points of {@code track} with all channels and the default precision.
+     *
+     * @return the number of points written
+     */
+    public static int write(TrackBuffer track, OutputStream out) throws IOException {
+        PolylineWriter writer = new PolylineWriter(out, TrackPolyline.ALL_CHANNELS, TrackPolyline.DEFAULT_DECIMALS);
+        try {
+            for (int i = 0; i < track.size(); i++) {
+                writer.add(track.time(i), track.lat(i), track.lng(i), track.altitude(i));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return writer.points;
+    }
+
+    @Override
+    public void add(long time, double lat, double lng, double altitude) {
+        if (buffer.length - position < TrackPolyline.MAX_POINT_CHARS) {
+            try {
+                drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        long latUnits = Math.round(lat * scale);
+        long lngUnits = Math.round(lng * scale);
+        int p = position;
+        p = TrackPolyline.putValue(buffer, p, latUnits - lastLat);
+        p = TrackPolyline.putValue(buffer, p, lngUnits - lastLng);
+        if ((channels & TrackPolyline.TIME) != 0) {
+            // The first point's time is stored in full, relative to 0 like the other values
+            long interval = points == 0 ? time : time - lastTime;
+            p = TrackPolyline.putValue(buffer, p, interval - lastInterval);
+            lastInterval = points == 0 ? 0 : interval;
+            lastTime = time;
+        }
+        if ((channels & TrackPolyline.ELEVATION) != 0) {
+            long elevation = Math.round(altitude * TrackPolyline.ELEVATION_SCALE);
+            p = TrackPolyline.putValue(buffer, p, elevation - lastElevation);
+            lastElevation = elevation;
+        }
+        position = p;
+        lastLat = latUnits;
+        lastLng = lngUnits;
+        points++;
+    }
+
+    /**
+     * Number of points added so far.
+     */
+    public int size() {
+        return points;
+    }
+
+    /**
+     * Writes the buffered characters and flushes the stream, which is left open.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
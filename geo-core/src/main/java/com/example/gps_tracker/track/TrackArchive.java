@@ -0,0 +1,402 @@
+package com.example.gps_tracker.track;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * A directory of recorded sessions, one {@link TrackFile} per session named after its id,
+ * plus an index file with the {@link TrackSummary} of every session. Listing the sessions only
+ * reads the index, never the track files.
+ *
+ * <pre>
+ * header: magic "GPSI" (4 bytes), version (1 byte), 3 reserved bytes
+ * record: id (8 bytes), start time (8), end time (8), point count (4), minimum latitude,
+ *         minimum longitude, maximum latitude, maximum longitude, distance in km (8 each),
+ *         CRC32 of everything before it in the record (4), all big-endian
+ * </pre>
+ *
+ * Records have a fixed size and are updated in place. A record that fails its checksum is
+ * dropped, and track files without a record, e.g. after a crash before the record was
+ * written, are summarised from their points when the archive is opened. Track files that
+ * cannot be read are renamed with the suffix {@value #DAMAGED_SUFFIX} instead, so that they
+ * are neither listed nor overwritten by a new session.
+ *
+ * Not thread-safe.
+ */
+public final class TrackArchive {
+
+    public static final String DIRECTORY_NAME = "tracks";
+    public static final String INDEX_FILE_NAME = "index.bin";
+    public static final String DAMAGED_SUFFIX = ".damaged";
+
+    static final byte[] MAGIC = {'G', 'P', 'S', 'I'};
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 3 * 8 + 4 + 5 * 8 + 4;
+
+    private static final String TRACK_SUFFIX = ".bin";
+
+    private final File directory;
+    private final File indexFile;
+    private final List<Session> sessions = new ArrayList<>();
+    /** Ids of the sessions whose track file is being written by an import. */
+    private final Set<Long> importing = new HashSet<>();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    private TrackArchive(File directory) {
+        this.directory = directory;
+        this.indexFile = new File(directory, INDEX_FILE_NAME);
+    }
+
+    /**
+     * Opens the archive in {@code directory}, creating the directory if needed.
+     *
+     * @throws IOException if the directory or index cannot be read
+     */
+    public static TrackArchive open(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        TrackArchive archive = new TrackArchive(directory);
+        boolean intact = archive.readIndex();
+        if (archive.addUnindexedTracks() || !intact) {
+            archive.writeIndex();
+        }
+        return archive;
+    }
+
+    /**
+     * All sessions, oldest first.
+     */
+    public List<Session> sessions() {
+        return Collections.unmodifiableList(sessions);
+    }
+
+    /**
+     * The most recently created session, or {@code null} if there is none.
+     */
+    public Session latest() {
+        return sessions.isEmpty() ? null : sessions.get(sessions.size() - 1);
+    }
+
+    /**
+     * Returns the session with the given id, or {@code null} if there is none.
+     */
+    public Session session(long id) {
+        int index = indexOf(id);
+        return index < 0 ? null : sessions.get(index);
+    }
+
+    /**
+     * Adds an empty session. Its track file is not created.
+     */
+    public Session create() throws IOException {
+        Session latest = latest();
+        long id = latest == null ? 1 : latest.id + 1;
+        // Skips files left over from a session whose record could not be written
+        while (trackFile(id).exists()) {
+            id++;
+        }
+        Session session = new Session(id, new TrackSummary());
+        sessions.add(session);
+        writeRecord(sessions.size() - 1);
+        return session;
+    }
+
+    /**
+     * The track file of the session with the given id.
+     */
+    public File trackFile(long id) {
+        return new File(directory, id + TRACK_SUFFIX);
+    }
+
+    /**
+     * Stores {@code summary} as the summary of the session with the given id.
+     *
+     * @return the updated session
+     * @throws IllegalArgumentException if there is no such session
+     */
+    public Session update(long id, TrackSummary summary) throws IOException {
+        int index = indexOf(id);
+        if (index < 0) {
+            throw new IllegalArgumentException("No session " + id);
+        }
+        Session session = new Session(id, summary);
+        sessions.set(index, session);
+        writeRecord(index);
+        return session;
+    }
+
+    /**
+     * Removes the session with the given id, its track file and its journal. The files go
+     * first, so that a crash in between cannot bring the session back from its track file.
+     *
+     * @throws IllegalArgumentException if there is no such session or it is being imported
+     * @throws IOException if a file cannot be deleted or the index cannot be written
+     */
+    public void delete(long id) throws IOException {
+        int index = indexOf(id);
+        if (index < 0) {
+            throw new IllegalArgumentException("No session " + id);
+        }
+        if (isImporting(id)) {
+            throw new IllegalArgumentException("Session " + id + " is being imported");
+        }
+        File trackFile = trackFile(id);
+        for (File file : new File[]{TrackJournal.fileFor(trackFile), trackFile}) {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Cannot delete " + file);
+            }
+        }
+        sessions.remove(index);
+        writeIndex();
+    }
+
+    /**
+     * Marks the session with the given id as being imported, or as no longer being imported.
+     * The mark is only kept in memory, since an import does not survive the process. It tells
+     * users of this archive to leave the track file alone until then, and {@link #delete}
+     * refuses such a session.
+     */
+    public void setImporting(long id, boolean importing) {
+        if (importing) {
+            this.importing.add(id);
+        } else {
+            this.importing.remove(id);
+        }
+    }
+
+    /**
+     * Whether the session with the given id is marked by {@link #setImporting}.
+     */
+    public boolean isImporting(long id) {
+        return importing.contains(id);
+    }
+
+    private int indexOf(long id) {
+        // Sessions are sorted by id
+        int low = 0;
+        int high = sessions.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = sessions.get(mid).id;
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return whether the index was missing or read without dropping anything
+     */
+    private boolean readIndex() throws IOException {
+        if (!indexFile.exists()) {
+            return true;
+        }
+        byte[] bytes = Files.readAllBytes(indexFile.toPath());
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes[i] != MAGIC[i]) {
+                throw new IOException("Not a track archive index");
+            }
+        }
+        if (bytes[MAGIC.length] > VERSION) {
+            throw new IOException("Unsupported track archive version " + bytes[MAGIC.length]);
+        }
+
+        boolean intact = (bytes.length - HEADER_SIZE) % RECORD_SIZE == 0;
+        for (int offset = HEADER_SIZE; offset + RECORD_SIZE <= bytes.length; offset += RECORD_SIZE) {
+            crc.reset();
+            crc.update(bytes, offset, RECORD_SIZE - 4);
+            buffer.position(offset);
+            long id = buffer.getLong();
+            if ((int) crc.getValue() != buffer.getInt(offset + RECORD_SIZE - 4) || indexOf(id) >= 0) {
+                intact = false;
+                continue;
+            }
+            sessions.add(new Session(id, buffer.getLong(), buffer.getLong(), buffer.getInt(), buffer.getDouble(),
+                    buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble()));
+        }
+        sessions.sort(Comparator.comparingLong(Session::getId));
+        return intact;
+    }
+
+    /**
+     * Adds a session for every track file in the directory that has no record, and moves
+     * those that cannot be read aside.
+     *
+     * @return whether any were added
+     */
+    private boolean addUnindexedTracks() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(TRACK_SUFFIX) && !name.equals(INDEX_FILE_NAME));
+        if (files == null) {
+            return false;
+        }
+        boolean added = false;
+        for (File file : files) {
+            String name = file.getName();
+            long id;
+            try {
+                id = Long.parseLong(name.substring(0, name.length() - TRACK_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (id <= 0 || indexOf(id) >= 0) {
+                continue;
+            }
+            TrackSummary summary = new TrackSummary();
+            try (MappedTrackFile track = MappedTrackFile.open(file)) {
+                track.readAll(summary);
+            } catch (IOException e) {
+                // Listing it as an empty session would let the recorder overwrite it
+                file.renameTo(new File(directory, name + DAMAGED_SUFFIX));
+                continue;
+            }
+            sessions.add(new Session(id, summary));
+            sessions.sort(Comparator.comparingLong(Session::getId));
+            added = true;
+        }
+        return added;
+    }
+
+    private void writeIndex() throws IOException {
+        File temp = new File(directory, INDEX_FILE_NAME + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            byte[] header = new byte[HEADER_SIZE];
+            System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+            header[MAGIC.length] = VERSION;
+            out.write(header);
+            for (Session session : sessions) {
+                out.write(encode(session), 0, RECORD_SIZE);
+            }
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(indexFile)) {
+            throw new IOException("Cannot replace " + indexFile);
+        }
+    }
+
+    private void writeRecord(int index) throws IOException {
+        if (!indexFile.exists()) {
+            writeIndex();
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(indexFile, "rw")) {
+            file.seek(HEADER_SIZE + (long) index * RECORD_SIZE);
+            file.write(encode(sessions.get(index)), 0, RECORD_SIZE);
+        }
+    }
+
+    private byte[] encode(Session session) {
+        record.clear();
+        record.putLong(session.id)
+                .putLong(session.startTime)
+                .putLong(session.endTime)
+                .putInt(session.pointCount)
+                .putDouble(session.minLat)
+                .putDouble(session.minLng)
+                .putDouble(session.maxLat)
+                .putDouble(session.maxLng)
+                .putDouble(session.distance);
+        crc.reset();
+        crc.update(record.array(), 0, RECORD_SIZE - 4);
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * One recording as described by its index record.
+     */
+    public static final class Session {
+        private final long id;
+        private final long startTime;
+        private final long endTime;
+        private final int pointCount;
+        private final double minLat;
+        private final double minLng;
+        private final double maxLat;
+        private final double maxLng;
+        private final double distance;
+
+        Session(long id, long startTime, long endTime, int pointCount, double minLat, double minLng,
+                double maxLat, double maxLng, double distance) {
+            this.id = id;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.pointCount = pointCount;
+            this.minLat = minLat;
+            this.minLng = minLng;
+            this.maxLat = maxLat;
+            this.maxLng = maxLng;
+            this.distance = distance;
+        }
+
+        Session(long id, TrackSummary summary) {
+            this(id, summary.getStartTime(), summary.getEndTime(), summary.getPointCount(), summary.getMinLat(),
+                    summary.getMinLng(), summary.getMaxLat(), summary.getMaxLng(), summary.getDistance());
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        public int getPointCount() {
+            return pointCount;
+        }
+
+        public boolean isEmpty() {
+            return pointCount == 0;
+        }
+
+        public double getMinLat() {
+            return minLat;
+        }
+
+        public double getMinLng() {
+            return minLng;
+        }
+
+        public double getMaxLat() {
+            return maxLat;
+        }
+
+        public double getMaxLng() {
+            return maxLng;
+        }
+
+        /**
+         * Length in kilometres.
+         */
+        public double getDistance() {
+            return distance;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.gps_tracker.track;
+
+import com.example.gps_tracker.vorgeben.LatLng;
+
+import java.util.Arrays;
+
+/**
+ * In-memory track stored column by column in growable primitive arrays:
+ * time, latitude, longitude, altitude and the projected UTM easting and
+ * northing of every point, 48 bytes per point in total. Points are
+ * projected when they are added, so the view never has to convert them,
+ * and the extent of the projected points is kept up to date as they are
+ * added, so the view never has to scan them for it either.
+ *
+ * Not thread-safe; the buffer is owned by the UI thread.
+ */
+public final class TrackBuffer implements TrackSink {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private long[] time;
+    private double[] lat;
+    private double[] lng;
+    private double[] altitude;
+    private double[] x;
+    private double[] y;
+    private int size;
+
+    private double minX = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY;
+    private double minY = Double.POSITIVE_INFINITY;
+    private double maxY = Double.NEGATIVE_INFINITY;
+
+    public TrackBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TrackBuffer(int capacity) {
+        capacity = Math.max(capacity, 1);
+        time = new long[capacity];
+        lat = new double[capacity];
+        lng = new double[capacity];
+        altitude = new double[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void add(long time, double lat, double lng, double altitude) {
+        ensureCapacity(size + 1);
+        this.time[size] = time;
+        this.lat[size] = lat;
+        this.lng[size] = lng;
+        this.altitude[size] = altitude;
+        LatLng.toUTMRef(this.lat, this.lng, size, 1, x, y, null, null);
+        extend(size, size + 1);
+        size++;
+    }
+
+    /**
+     * Appends {@code count} points from the given columns, starting at {@code offset},
+     * and projects them in one batch.
+     */
+    public void addAll(long[] time, double[] lat, double[] lng, double[] altitude, int offset, int count) {
+        ensureCapacity(size + count);
+        System.arraycopy(time, offset, this.time, size, count);
+        System.arraycopy(lat, offset, this.lat, size, count);
+        System.arraycopy(lng, offset, this.lng, size, count);
+        System.arraycopy(altitude, offset, this.altitude, size, count);
+        LatLng.toUTMRef(this.lat, this.lng, size, count, x, y, null, null);
+        extend(size, size + count);
+        size += count;
+    }
+
+    public void clear() {
+        size = 0;
+        minX = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity > time.length) {
+            int newCapacity = Math.max(capacity, time.length + (time.length >> 1));
+            time = Arrays.copyOf(time, newCapacity);
+            lat = Arrays.copyOf(lat, newCapacity);
+            lng = Arrays.copyOf(lng, newCapacity);
+            altitude = Arrays.copyOf(altitude, newCapacity);
+            x = Arrays.copyOf(x, newCapacity);
+            y = Arrays.copyOf(y, newCapacity);
+        }
+    }
+
+    public long time(int index) {
+        return time[checkIndex(index)];
+    }
+
+    public double lat(int index) {
+        return lat[checkIndex(index)];
+    }
+
+    public double lng(int index) {
+        return lng[checkIndex(index)];
+    }
+
+    public double altitude(int index) {
+        return altitude[checkIndex(index)];
+    }
+
+    /**
+     * Index of the first point whose time is at or after {@code time}, or {@link #size()} if
+     * there is none, found by binary search. Assumes that the times of the points increase,
+     * as the times of recorded fixes do.
+     */
+    public int indexOfTime(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.time[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** UTM easting in metres. */
+    public double x(int index) {
+        return x[checkIndex(index)];
+    }
+
+    /** UTM northing in metres. */
+    public double y(int index) {
+        return y[checkIndex(index)];
+    }
+
+    /** Smallest UTM easting of all points, or NaN if the buffer is empty. */
+    public double minX() {
+        return size == 0 ? Double.NaN : minX;
+    }
+
+    /** Largest UTM easting of all points, or NaN if the buffer is empty. */
+    public double maxX() {
+        return size == 0 ? Double.NaN : maxX;
+    }
+
+    /** Smallest UTM northing of all points, or NaN if the buffer is empty. */
+    public double minY() {
+        return size == 0 ? Double.NaN : minY;
+    }
+
+    /** Largest UTM northing of all points, or NaN if the buffer is empty. */
+    public double maxY() {
+        return size == 0 ? Double.NaN : maxY;
+    }
+
+    /*
+     * Backing arrays for bulk kernels such as PathLength.cumulativeDistance. Only the first
+     * size() elements are valid, and the arrays are replaced when the buffer grows, so they
+     * must not be kept across calls to add().
+     */
+
+    public long[] timeArray() {
+        return time;
+    }
+
+    public double[] latArray() {
+        return lat;
+    }
+
+    public double[] lngArray() {
+        return lng;
+    }
+
+    public double[] altitudeArray() {
+        return altitude;
+    }
+
+    public double[] xArray() {
+        return x;
+    }
+
+    public double[] yArray() {
+        return y;
+    }
+
+    /**
+     * Returns a view of the points {@code from} (inclusive) to {@code to} (exclusive)
+     * that reads through to this buffer without copying.
+     */
+    public Slice slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", size: " + size);
+        }
+        return new Slice(from, to - from);
+    }
+
+    private void extend(int from, int to) {
+        for (int i = from; i < to; i++) {
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return index;
+    }
+
+    /**
+     * Zero-copy range of a {@link TrackBuffer}. Indices are relative to the start of the slice.
+     */
+    public final class Slice {
+        private final int offset;
+        private final int length;
+
+        private Slice(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int size() {
+            return length;
+        }
+
+        public long time(int index) {
+            return time[offset + checkSliceIndex(index)];
+        }
+
+        public double lat(int index) {
+            return lat[offset + checkSliceIndex(index)];
+        }
+
+        public double lng(int index) {
+            return lng[offset + checkSliceIndex(index)];
+        }
+
+        public double altitude(int index) {
+            return altitude[offset + checkSliceIndex(index)];
+        }
+
+        public double x(int index) {
+            return x[offset + checkSliceIndex(index)];
+        }
+
+        public double y(int index) {
+            return y[offset + checkSliceIndex(index)];
+        }
+
+        private int checkSliceIndex(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + length);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.gps_tracker.track;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * CSV layout of a track: one header line followed by one
+ * {@code time,latitude,longitude,altitude} row per fix. Tracks used to be
+ * recorded in this format as {@code gps_data.csv}; they are now recorded as a
+ * {@link TrackFile} and CSV is only read to migrate old recordings and written
+ * on export.
+ */
+public final class TrackCsv {
+
+    public static final String FILE_NAME = "gps_data.csv";
+    public static final String HEADER = "time,latitude,longitude,altitude";
+
+    /**
+     * Told about data rows that could not be parsed; they are skipped.
+     */
+    public interface MalformedRowListener {
+        void onMalformedRow(int lineNumber, String line, RuntimeException cause);
+    }
+
+    private TrackCsv() {
+    }
+
+    /**
+     * Reads all data rows from {@code in} and passes them to {@code sink}. A first line that
+     * does not start with a number is taken as the header and skipped, as are blank lines.
+     *
+     * The bytes are scanned in place: numbers are parsed straight from the read buffer and
+     * nothing is allocated per row unless a row is malformed.
+     *
+     * @param listener told about rows that are skipped, may be {@code null}
+     * @return the number of points passed to the sink
+     */
+    public static int read(InputStream in, TrackSink sink, MalformedRowListener listener) throws IOException {
+        RowParser parser = new RowParser();
+        byte[] buffer = new byte[1 << 16];
+        int start = 0;
+        int scan = 0;
+        int end = 0;
+        int lineNumber = 0;
+        int points = 0;
+        boolean eof = false;
+        while (true) {
+            int newline = scan;
+            while (newline < end && buffer[newline] != '\n') {
+                newline++;
+            }
+            if (newline == end) {
+                if (eof) {
+                    if (start < end && parser.parse(buffer, start, end, ++lineNumber, sink, listener)) {
+                        points++;
+                    }
+                    return points;
+                }
+                // Keep the partial line and refill the buffer behind it
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    start = 0;
+                } else if (end == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                scan = end;
+                int n = in.read(buffer, end, buffer.length - end);
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    end += n;
+                }
+                continue;
+            }
+            if (parser.parse(buffer, start, newline, ++lineNumber, sink, listener)) {
+                points++;
+            }
+            start = newline + 1;
+            scan = start;
+        }
+    }
+
+    /**
+     * Writes the header line and one row per point of {@code track} to {@code out}.
+     */
+    public static void write(TrackBuffer track, Appendable out) throws IOException {
+        out.append(HEADER).append('\n');
+        DecimalFormatter row = new DecimalFormatter();
+        int size = track.size();
+        for (int i = 0; i < size; i++) {
+            out.append(formatRow(track, i, row).append('\n'));
+        }
+    }
+
+    /**
+     * Formats the row of point {@code index} of {@code track}, without a line break, into
+     * {@code row}, which is cleared first. Lets a viewer format only the rows it shows.
+     *
+     * @return {@code row}
+     */
+    public static DecimalFormatter formatRow(TrackBuffer track, int index, DecimalFormatter row) {
+        return formatRow(track.time(index), track.lat(index), track.lng(index), track.altitude(index), row);
+    }
+
+    /**
+     * Formats the row of a point, without a line break, into {@code row}, which is cleared
+     * first.
+     *
+     * @return {@code row}
+     */
+    public static DecimalFormatter formatRow(long time, double lat, double lng, double altitude,
+                                             DecimalFormatter row) {
+        return row.clear()
+                .append(time).append(',')
+                .append(lat, 6).append(',')
+                .append(lng, 6).append(',')
+                .append(altitude, 2);
+    }
+
+    /**
+     * Parses one row in place.
+     */
+    private static final class RowParser {
+
+        /** Powers of ten that are exact as doubles. */
+        private static final double[] POWERS_OF_TEN = {
+                1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+
+        private byte[] buffer;
+        private int lineStart;
+        private int position;
+        private int end;
+
+        /**
+         * @return whether a point was passed to the sink
+         */
+        boolean parse(byte[] buffer, int start, int end, int lineNumber, TrackSink sink,
+                      MalformedRowListener listener) {
+            if (end > start && buffer[end - 1] == '\r') {
+                end--;
+            }
+            if (isBlank(buffer, start, end)) {
+                return false;
+            }
+            if (lineNumber == 1 && !startsWithNumber(buffer[start])) {
+                return false;
+            }
+            this.buffer = buffer;
+            this.lineStart = start;
+            this.position = start;
+            this.end = end;
+            try {
+                long time = parseLong();
+                separator();
+                double lat = parseDouble();
+                separator();
+                double lng = parseDouble();
+                separator();
+                double altitude = parseDouble();
+                if (position < end && buffer[position] != ',') {
+                    throw error("Unexpected character");
+                }
+                sink.add(time, lat, lng, altitude);
+                return true;
+            } catch (IllegalArgumentException e) {
+                if (listener != null) {
+                    listener.onMalformedRow(lineNumber, new String(buffer, start, end - start, StandardCharsets.UTF_8), e);
+                }
+                return false;
+            }
+        }
+
+        private void separator() {
+            if (position == end) {
+                throw error("Expected 4 columns");
+            }
+            if (buffer[position] != ',') {
+                throw error("Unexpected character");
+            }
+            position++;
+        }
+
+        private long parseLong() {
+            boolean negative = sign();
+            int digits = position;
+            long value = 0;
+            while (position < end && isDigit(buffer[position])) {
+                int digit = buffer[position++] - '0';
+                if (value > (Long.MAX_VALUE - digit) / 10) {
+                    throw error("Number too large");
+                }
+                value = value * 10 + digit;
+            }
+            if (position == digits) {
+                throw error("Expected a number");
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * Parses a decimal number. Numbers with at most 15 or so significant digits and a
+         * small exponent, which covers everything the app writes, are converted exactly with a
+         * single multiplication or division; anything else falls back to Double.parseDouble.
+         */
+        private double parseDouble() {
+            int start = position;
+            boolean negative = sign();
+            long mantissa = 0;
+            int exponent = 0;
+            boolean exact = true;
+            boolean anyDigits = false;
+            while (position < end && isDigit(buffer[position])) {
+                int digit = buffer[position++] - '0';
+                anyDigits = true;
+                if (mantissa < Long.MAX_VALUE / 10 - 1) {
+                    mantissa = mantissa * 10 + digit;
+                } else {
+                    exponent++;
+                    exact &= digit == 0;
+                }
+            }
+            if (position < end && buffer[position] == '.') {
+                position++;
+                while (position < end && isDigit(buffer[position])) {
+                    int digit = buffer[position++] - '0';
+                    anyDigits = true;
+                    if (mantissa < Long.MAX_VALUE / 10 - 1) {
+                        mantissa = mantissa * 10 + digit;
+                        exponent--;
+                    } else {
+                        exact &= digit == 0;
+                    }
+                }
+            }
+            if (!anyDigits) {
+                throw error("Expected a number");
+            }
+            if (position < end && (buffer[position] == 'e' || buffer[position] == 'E')) {
+                position++;
+                boolean negativeExponent = sign();
+                int digits = position;
+                int value = 0;
+                while (position < end && isDigit(buffer[position])) {
+                    value = Math.min(value * 10 + buffer[position++] - '0', 10_000);
+                }
+                if (position == digits) {
+                    throw error("Expected an exponent");
+                }
+                exponent += negativeExponent ? -value : value;
+            }
+
+            double value;
+            if (exact && mantissa < (1L << 53) && Math.abs(exponent) < POWERS_OF_TEN.length) {
+                value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+                return negative ? -value : value;
+            }
+            return Double.parseDouble(new String(buffer, start, position - start, StandardCharsets.ISO_8859_1));
+        }
+
+        /**
+         * Skips a sign.
+         *
+         * @return whether it was a minus sign
+         */
+        private boolean sign() {
+            if (position < end && (buffer[position] == '-' || buffer[position] == '+')) {
+                return buffer[position++] == '-';
+            }
+            return false;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new NumberFormatException(message + " at column " + (position - lineStart + 1));
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+
+        private static boolean startsWithNumber(byte b) {
+            return isDigit(b) || b == '-' || b == '+' || b == '.';
+        }
+
+        private static boolean isBlank(byte[] buffer, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (buffer[i] != ' ' && buffer[i] != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.gps_tracker.track;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Exports a track in several formats at once.
+ */
+public final class TrackExport {
+
+    private TrackExport() {
+    }
+
+    /**
+     * Writes all points of {@code track} to each of the {@code exporters}, reading every point
+     * only once.
+     *
+     * @return the number of points written to each exporter
+     */
+    public static int write(TrackBuffer track, String name, TrackExporter... exporters) throws IOException {
+        for (TrackExporter exporter : exporters) {
+            exporter.begin(name);
+        }
+        int size = track.size();
+        try {
+            for (int i = 0; i < size; i++) {
+                long time = track.time(i);
+                double lat = track.lat(i);
+                double lng = track.lng(i);
+                double altitude = track.altitude(i);
+                for (TrackExporter exporter : exporters) {
+                    exporter.add(time, lat, lng, altitude);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (TrackExporter exporter : exporters) {
+            exporter.end();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.gps_tracker.track;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Streaming encoder of a track into one document format. The points are passed one at a time
+ * between {@link #begin} and {@link #end}, so a single pass over a track can feed several
+ * exporters at once, see {@link TrackExport}. Since {@link TrackSink#add} cannot throw checked
+ * exceptions, write failures from {@code add} are rethrown as an {@link UncheckedIOException}.
+ */
+public interface TrackExporter extends TrackSink {
+
+    /**
+     * Writes everything up to the first point.
+     *
+     * @param name name of the track, in formats that have one
+     */
+    void begin(String name) throws IOException;
+
+    /**
+     * Writes everything after the last point and flushes it to the stream, which is left open.
+     *
+     * @return the number of points written
+     */
+    int end() throws IOException;
+}
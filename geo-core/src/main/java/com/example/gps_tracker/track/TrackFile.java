@@ -0,0 +1,78 @@
+package com.example.gps_tracker.track;
+
+/**
+ * Layout of the binary track file, {@code track.bin}, which replaces {@code gps_data.csv} as
+ * the recording format. CSV and GPX are only produced on export.
+ *
+ * <pre>
+ * header: magic "GPST" (4 bytes), version (1 byte), 3 reserved bytes
+ * block:  count (varint), payload length (varint), payload, CRC32 of everything before it
+ *         in the block (4 bytes, big-endian)
+ * </pre>
+ *
+ * Every block is self-contained. Its first point is stored in full and the following points
+ * as differences: the time as the change of the interval between fixes, latitude and
+ * longitude in units of 1e-7 degrees and the altitude in centimetres, all as zigzag varints.
+ * With one fix every few seconds most points fit in six or seven bytes.
+ *
+ * A block is only written once it is complete, so a crash can at most leave a torn block at
+ * the end of the file. Readers stop at the first block that is incomplete or fails its
+ * checksum.
+ */
+public final class TrackFile {
+
+    /** The single track file of versions before the {@link TrackArchive}. */
+    public static final String FILE_NAME = "track.bin";
+
+    static final byte[] MAGIC = {'G', 'P', 'S', 'T'};
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    /** Upper bound for the points in one block, which also bounds the block size. */
+    static final int MAX_BLOCK_POINTS = 256;
+
+    /** Largest encoded point: a 64 bit varint for the time and three for the other columns. */
+    static final int MAX_POINT_BYTES = 4 * 10;
+
+    static final double COORDINATE_SCALE = 1e7;
+    static final double ALTITUDE_SCALE = 100.0;
+
+    private TrackFile() {
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes {@code value} as an unsigned varint at {@code offset}.
+     *
+     * @return the offset after the last byte written
+     */
+    static int putVarint(byte[] buffer, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+    static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    static int getInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) << 24
+                | (buffer[offset + 1] & 0xFF) << 16
+                | (buffer[offset + 2] & 0xFF) << 8
+                | (buffer[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.gps_tracker.track;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+
+/**
+ * Streams the points of a binary track file, see {@link TrackFile}, block by block into a
+ * {@link TrackSink}. Only one block is held in memory at a time.
+ */
+public final class TrackFileReader implements Closeable {
+
+    private final InputStream in;
+    private final CRC32 crc = new CRC32();
+    private byte[] block = new byte[4096];
+
+    private long validLength;
+    private boolean truncated;
+
+    public TrackFileReader(InputStream in) {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 1 << 16);
+    }
+
+    /**
+     * Passes all points to {@code sink}. Reading stops quietly at the end of the file or at the
+     * first block that is incomplete or fails its checksum, see {@link #isTruncated()}.
+     *
+     * @return the number of points passed to the sink
+     * @throws IOException if the stream fails or is not a track file
+     */
+    public int read(TrackSink sink) throws IOException {
+        readHeader();
+        int points = 0;
+        while (true) {
+            long count = readVarint();
+            if (count < 0) {
+                // Clean end of file unless a varint was cut off
+                truncated = count != -1;
+                return points;
+            }
+            long length = readVarint();
+            if (length < 0 || count == 0 || count > TrackFile.MAX_BLOCK_POINTS
+                    || length > (long) TrackFile.MAX_BLOCK_POINTS * TrackFile.MAX_POINT_BYTES) {
+                truncated = true;
+                return points;
+            }
+            // The checksum covers the block header, so put its bytes back in front of the payload
+            int payloadLength = (int) length;
+            int payloadOffset = TrackFile.putVarint(block, 0, count);
+            payloadOffset = TrackFile.putVarint(block, payloadOffset, payloadLength);
+            int blockLength = payloadOffset + payloadLength + 4;
+            if (block.length < blockLength) {
+                byte[] grown = new byte[blockLength];
+                System.arraycopy(block, 0, grown, 0, payloadOffset);
+                block = grown;
+            }
+            if (!readFully(block, payloadOffset, payloadLength + 4)) {
+                truncated = true;
+                return points;
+            }
+            crc.reset();
+            crc.update(block, 0, payloadOffset + payloadLength);
+            if ((int) crc.getValue() != TrackFile.getInt(block, payloadOffset + payloadLength)) {
+                truncated = true;
+                return points;
+            }
+            decode(block, payloadOffset, (int) count, sink);
+            points += (int) count;
+            validLength += blockLength;
+        }
+    }
+
+    /**
+     * Length of the file up to the end of the last intact block, after {@link #read}.
+     */
+    public long getValidLength() {
+        return validLength;
+    }
+
+    /**
+     * Whether {@link #read} stopped at a damaged or incomplete block rather than at the end of
+     * the file.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readHeader() throws IOException {
+        byte[] header = new byte[TrackFile.HEADER_SIZE];
+        if (!readFully(header, 0, header.length)) {
+            throw new IOException("Track file is shorter than its header");
+        }
+        for (int i = 0; i < TrackFile.MAGIC.length; i++) {
+            if (header[i] != TrackFile.MAGIC[i]) {
+                throw new IOException("Not a track file");
+            }
+        }
+        if (header[TrackFile.MAGIC.length] > TrackFile.VERSION) {
+            throw new IOException("Unsupported track file version " + header[TrackFile.MAGIC.length]);
+        }
+        validLength = TrackFile.HEADER_SIZE;
+    }
+
+    /**
+     * Decodes {@code count} points from the payload starting at {@code offset}.
+     */
+    static int decode(byte[] buffer, int offset, int count, TrackSink sink) {
+        int p = offset;
+        long time = 0;
+        long interval = 0;
+        long lat = 0;
+        long lng = 0;
+        long altitude = 0;
+        long[] deltas = new long[4];
+        for (int i = 0; i < count; i++) {
+            for (int column = 0; column < 4; column++) {
+                long value = 0;
+                int shift = 0;
+                int b;
+                do {
+                    b = buffer[p++];
+                    value |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                deltas[column] = TrackFile.unzigzag(value);
+            }
+            if (i == 0) {
+                time = deltas[0];
+            } else {
+                interval += deltas[0];
+                time += interval;
+            }
+            lat += deltas[1];
+            lng += deltas[2];
+            altitude += deltas[3];
+            sink.add(time, lat / TrackFile.COORDINATE_SCALE, lng / TrackFile.COORDINATE_SCALE,
+                    altitude / TrackFile.ALTITUDE_SCALE);
+        }
+        return p;
+    }
+
+    /**
+     * Reads an unsigned varint from the stream.
+     *
+     * @return the value, -1 at a clean end of the stream or -2 if the varint was cut off
+     */
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                return shift == 0 ? -1 : -2;
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        return -2;
+    }
+
+    private boolean readFully(byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = in.read(buffer, offset, length);
+            if (n < 0) {
+                return false;
+            }
+            offset += n;
+            length -= n;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.gps_tracker.track;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Appends points to a binary track file, see {@link TrackFile}. Points are encoded as they
+ * arrive and written as one block when the block is full or on {@link #flush()}. Since
+ * {@link TrackSink#add} cannot throw checked exceptions, a failure to write a full block from
+ * {@code add} is rethrown as an {@link UncheckedIOException}. Points of a block that could not
+ * be written stay pending and are written with the next block, and a writer opened with
+ * {@link #append} cuts off whatever part of the block did reach the file.
+ *
+ * Not thread-safe.
+ */
+public final class TrackFileWriter implements TrackSink, Flushable, Closeable {
+
+    private final OutputStream out;
+    /** Channel of the file when opened with {@link #append}, for cutting off torn blocks. */
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+
+    private final byte[] payload = new byte[TrackFile.MAX_BLOCK_POINTS * TrackFile.MAX_POINT_BYTES];
+    private final byte[] block = new byte[payload.length + 2 * 10 + 4];
+    private int payloadLength;
+    private int count;
+    private long length;
+
+    private long lastTime;
+    private long lastInterval;
+    private long lastLat;
+    private long lastLng;
+    private long lastAltitude;
+
+    /**
+     * @param writeHeader whether {@code out} is at the start of a new file
+     */
+    public TrackFileWriter(OutputStream out, boolean writeHeader) throws IOException {
+        this(out, null, writeHeader, 0);
+    }
+
+    private TrackFileWriter(OutputStream out, FileChannel channel, boolean writeHeader, long offset)
+            throws IOException {
+        this.out = out;
+        this.channel = channel;
+        this.length = offset;
+        if (writeHeader) {
+            byte[] header = new byte[TrackFile.HEADER_SIZE];
+            System.arraycopy(TrackFile.MAGIC, 0, header, 0, TrackFile.MAGIC.length);
+            header[TrackFile.MAGIC.length] = TrackFile.VERSION;
+            out.write(header);
+            length += TrackFile.HEADER_SIZE;
+        }
+    }
+
+    /**
+     * Opens {@code file} for appending after its first {@code validLength} bytes, as reported
+     * by {@link TrackFileReader#getValidLength()}. Anything after that, such as a block torn by
+     * a crash, is cut off first so that new blocks stay readable. A missing file, or one that
+     * is shorter than its header, is started with a header.
+     *
+     * @throws IOException if {@code validLength} is less than a header but the file is not,
+     *         i.e. the file could not be read and starting it over would lose its points
+     */
+    public static TrackFileWriter append(File file, long validLength) throws IOException {
+        if (validLength < TrackFile.HEADER_SIZE) {
+            validLength = 0;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (validLength == 0 && raf.length() >= TrackFile.HEADER_SIZE) {
+                throw new IOException("Refusing to overwrite unreadable track file " + file);
+            }
+            if (raf.length() != validLength) {
+                raf.setLength(validLength);
+            }
+        }
+        FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            return new TrackFileWriter(out, out.getChannel(), validLength == 0, validLength);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void add(long time, double lat, double lng, double altitude) {
+        if (count == TrackFile.MAX_BLOCK_POINTS) {
+            // The last attempt to write the full block failed
+            try {
+                writeBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        long latE7 = Math.round(lat * TrackFile.COORDINATE_SCALE);
+        long lngE7 = Math.round(lng * TrackFile.COORDINATE_SCALE);
+        long altitudeCm = Math.round(altitude * TrackFile.ALTITUDE_SCALE);
+
+        int p = payloadLength;
+        if (count == 0) {
+            p = TrackFile.putVarint(payload, p, TrackFile.zigzag(time));
+            p = TrackFile.putVarint(payload, p, TrackFile.zigzag(latE7));
+            p = TrackFile.putVarint(payload, p, TrackFile.zigzag(lngE7));
+            p = TrackFile.putVarint(payload, p, TrackFile.zigzag(altitudeCm));
+            lastInterval = 0;
+        } else {
+            long interval = time - lastTime;
+            p = TrackFile.putVarint(payload, p, TrackFile.zigzag(interval - lastInterval));
+            p = TrackFile.putVarint(payload, p, TrackFile.zigzag(latE7 - lastLat));
+            p = TrackFile.putVarint(payload, p, TrackFile.zigzag(lngE7 - lastLng));
+            p = TrackFile.putVarint(payload, p, TrackFile.zigzag(altitudeCm - lastAltitude));
+            lastInterval = interval;
+        }
+        payloadLength = p;
+        count++;
+        lastTime = time;
+        lastLat = latE7;
+        lastLng = lngE7;
+        lastAltitude = altitudeCm;
+
+        if (count == TrackFile.MAX_BLOCK_POINTS) {
+            try {
+                writeBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Number of points that have been added but not yet written.
+     */
+    public int pendingPoints() {
+        return count;
+    }
+
+    /**
+     * Length of the file up to the end of the last block written, counting from the start of
+     * the file when opened with {@link #append} and from the start of the stream otherwise.
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Writes the pending points as a block, even if it is not full, and flushes the stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    /**
+     * Like {@link #flush()}, and then asks the operating system to write the file to storage
+     * if the stream is a {@link FileOutputStream}.
+     */
+    public void sync() throws IOException {
+        flush();
+        if (out instanceof FileOutputStream) {
+            ((FileOutputStream) out).getFD().sync();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBlock();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        int p = TrackFile.putVarint(block, 0, count);
+        p = TrackFile.putVarint(block, p, payloadLength);
+        System.arraycopy(payload, 0, block, p, payloadLength);
+        p += payloadLength;
+        crc.reset();
+        crc.update(block, 0, p);
+        TrackFile.putInt(block, p, (int) crc.getValue());
+        p += 4;
+
+        try {
+            out.write(block, 0, p);
+        } catch (IOException e) {
+            cutOffTornBlock(e);
+            throw e;
+        }
+        // Only forget the points once they are in the file
+        count = 0;
+        payloadLength = 0;
+        length += p;
+    }
+
+    /**
+     * Truncates the file back to the end of the last block written, so that a later block does
+     * not follow part of this one.
+     */
+    private void cutOffTornBlock(IOException cause) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (channel.size() > length) {
+                channel.truncate(length);
+            }
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.gps_tracker.track;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of a track file that is being recorded. Fixes are appended here as they
+ * arrive, so they survive a crash while they are still waiting to fill a block of the
+ * {@link TrackFile}.
+ *
+ * <pre>
+ * header: magic "GPSJ" (4 bytes), version (1 byte), 3 reserved bytes, length of the track
+ *         file the records follow (8 bytes), CRC32 of everything before it in the header (4 bytes)
+ * record: time (8 bytes), latitude, longitude, altitude (8 bytes each), CRC32 of the track
+ *         file length and everything before it in the record (4 bytes), all big-endian
+ * </pre>
+ *
+ * A checkpoint, {@link #reset}, is taken whenever a block has been written to the track file
+ * and synced: the journal is emptied and starts over with the new length of the track file.
+ * {@link #replay} only replays a journal whose length matches the valid length of the track
+ * file, so fixes that already made it into a block are never replayed twice, and it stops at
+ * the first record that is incomplete or fails its checksum. Since the checksum of a record
+ * covers the length in the header, records left over from before a checkpoint never pass.
+ *
+ * Not thread-safe.
+ */
+public final class TrackJournal implements TrackSink, Closeable {
+
+    public static final String SUFFIX = ".journal";
+
+    static final byte[] MAGIC = {'G', 'P', 'S', 'J'};
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 20;
+    static final int RECORD_SIZE = 4 * 8 + 4;
+
+    private final RandomAccessFile file;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * RECORD_SIZE);
+    private final ByteBuffer lengthBytes = ByteBuffer.allocate(8);
+    private long baseLength;
+
+    private TrackJournal(RandomAccessFile file) {
+        this.file = file;
+    }
+
+    /**
+     * The journal that belongs to {@code trackFile}.
+     */
+    public static File fileFor(File trackFile) {
+        return new File(trackFile.getPath() + SUFFIX);
+    }
+
+    /**
+     * Starts an empty journal in {@code file}, replacing whatever it held, for a track file
+     * that is {@code baseLength} bytes long.
+     */
+    public static TrackJournal create(File file, long baseLength) throws IOException {
+        TrackJournal journal = new TrackJournal(new RandomAccessFile(file, "rw"));
+        try {
+            journal.reset(baseLength);
+        } catch (IOException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Passes the fixes recorded in {@code file} to {@code sink} if the journal follows a track
+     * file of {@code validLength} bytes, as reported by {@link MappedTrackFile#getValidLength()}.
+     * A missing or damaged journal, including one whose header was torn or zeroed by a crash,
+     * or one that belongs to another length, holds nothing.
+     *
+     * @return the number of fixes passed to the sink
+     * @throws IOException if the journal exists but cannot be read
+     */
+    public static int replay(File file, long validLength, TrackSink sink) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        if (bytes.length < HEADER_SIZE) {
+            return 0;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes[i] != MAGIC[i]) {
+                return 0;
+            }
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, HEADER_SIZE - 4);
+        if (bytes[MAGIC.length] != VERSION || (int) crc.getValue() != in.getInt(HEADER_SIZE - 4)
+                || in.getLong(8) != validLength) {
+            return 0;
+        }
+
+        int points = 0;
+        for (int offset = HEADER_SIZE; offset + RECORD_SIZE <= bytes.length; offset += RECORD_SIZE) {
+            crc.reset();
+            crc.update(bytes, 8, 8);
+            crc.update(bytes, offset, RECORD_SIZE - 4);
+            if ((int) crc.getValue() != in.getInt(offset + RECORD_SIZE - 4)) {
+                break;
+            }
+            in.position(offset);
+            sink.add(in.getLong(), in.getDouble(), in.getDouble(), in.getDouble());
+            points++;
+        }
+        return points;
+    }
+
+    /**
+     * Buffers a record for the fix. Records are written to the file by {@link #write()}, or
+     * when the buffer is full, in which case a failure is rethrown as an
+     * {@link UncheckedIOException}.
+     */
+    @Override
+    public void add(long time, double lat, double lng, double altitude) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            try {
+                write();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        int start = buffer.position();
+        buffer.putLong(time).putDouble(lat).putDouble(lng).putDouble(altitude);
+        crc.reset();
+        crc.update(lengthBytes.array(), 0, 8);
+        crc.update(buffer.array(), start, RECORD_SIZE - 4);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Writes the buffered records to the file. Once written they survive the process being
+     * killed, but not necessarily a power loss, see {@link #sync()}.
+     */
+    public void write() throws IOException {
+        if (buffer.position() > 0) {
+            file.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Writes the buffered records and asks the operating system to write the file to storage.
+     */
+    public void sync() throws IOException {
+        write();
+        file.getFD().sync();
+    }
+
+    /**
+     * Takes a checkpoint: drops all records, written or not, and starts over for a track file
+     * that is now {@code baseLength} bytes long. Must only be called once the track file has
+     * been synced up to that length.
+     */
+    public void reset(long baseLength) throws IOException {
+        buffer.clear();
+        // Cut the records off before writing the new header, so that a crash in between
+        // leaves nothing that could be replayed
+        file.setLength(0);
+        this.baseLength = baseLength;
+        lengthBytes.putLong(0, baseLength);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC).put((byte) VERSION).put(new byte[3]).putLong(baseLength);
+        crc.reset();
+        crc.update(header.array(), 0, HEADER_SIZE - 4);
+        header.putInt((int) crc.getValue());
+        file.seek(0);
+        file.write(header.array());
+    }
+
+    /**
+     * Length of the track file the journal follows.
+     */
+    public long getBaseLength() {
+        return baseLength;
+    }
+
+    /**
+     * Closes the file without writing buffered records.
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.gps_tracker.track;
+
+/**
+ * Compact text format for sharing tracks, based on the encoded polyline format used by map
+ * services. Every value is stored as the difference to the same value of the previous point,
+ * zigzag encoded and written in groups of five bits as printable ASCII characters from
+ * {@code ?} to {@code ~}, so the result can be pasted into messages, URLs and JSON as is.
+ *
+ * <pre>
+ * header: "P1", channels ('0' + bit mask of {@link #TIME} and {@link #ELEVATION}),
+ *         coordinate decimals ('0' + decimals)
+ * point:  latitude, longitude, [time], [elevation]
+ * </pre>
+ *
+ * Coordinates are stored with the given number of decimals, 5 being the usual polyline
+ * precision of about a metre. Without further channels and with 5 decimals, everything after
+ * the header is a standard encoded polyline. Times are stored in milliseconds as the change
+ * of the interval between fixes, like in the {@link TrackFile}, so fixes at a steady rate cost
+ * a single character, and elevations in centimetres.
+ */
+public final class TrackPolyline {
+
+    /** Channel with the time of each point. */
+    public static final int TIME = 1;
+
+    /** Channel with the elevation of each point. */
+    public static final int ELEVATION = 2;
+
+    public static final int ALL_CHANNELS = TIME | ELEVATION;
+
+    public static final int DEFAULT_DECIMALS = 5;
+    public static final int MAX_DECIMALS = 7;
+
+    static final byte[] MAGIC = {'P', '1'};
+    static final int HEADER_SIZE = 4;
+
+    /** Largest encoded value: 64 bits in groups of five. */
+    static final int MAX_VALUE_CHARS = 13;
+    static final int MAX_POINT_CHARS = 4 * MAX_VALUE_CHARS;
+
+    static final double ELEVATION_SCALE = 100.0;
+
+    private static final double[] SCALES = {1, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7};
+
+    private TrackPolyline() {
+    }
+
+    static double scale(int decimals) {
+        return SCALES[decimals];
+    }
+
+    /**
+     * Writes {@code value} zigzag encoded at {@code offset}.
+     *
+     * @return the offset after the last character written
+     */
+    static int putValue(byte[] buffer, int offset, long value) {
+        long bits = TrackFile.zigzag(value);
+        while ((bits & ~0x1FL) != 0) {
+            buffer[offset++] = (byte) (((bits & 0x1F) | 0x20) + 63);
+            bits >>>= 5;
+        }
+        buffer[offset++] = (byte) (bits + 63);
+        return offset;
+    }
+}
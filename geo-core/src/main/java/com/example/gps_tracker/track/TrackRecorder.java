@@ -0,0 +1,467 @@
+package com.example.gps_tracker.track;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes fixes to a {@link TrackFileWriter} on a background thread, so that recording never
+ * touches the file system on the caller's thread.
+ *
+ * Fixes go into a bounded ring of primitive columns. The writer thread drains it in groups:
+ * once {@code commitSize} fixes are waiting, once the oldest waiting fix is
+ * {@code commitInterval} old, or when {@link #flush()} or {@link #close()} is called. Each group
+ * is written as one block followed by a single fsync.
+ *
+ * With a {@link TrackJournal}, as set up by {@link #open}, every fix is written to the
+ * journal as soon as the writer thread picks it up, and the commit interval and size apply to
+ * syncing the journal instead. Blocks are then only written when they are full, or on
+ * {@link #flush()} and {@link #close()}, and each block is followed by a checkpoint of the
+ * journal. A killed process loses at most the fixes still in the ring, and a power loss at
+ * most the fixes of one commit interval, while the track file gets full, compact blocks.
+ *
+ * {@link #add} never blocks. When the ring is full the fix is dropped and counted; offers that
+ * find the ring three quarters full are counted as backpressure, which means the storage is
+ * not keeping up. When writing fails partway through a group, the fixes the writer did not
+ * take are counted as dropped as well.
+ */
+public final class TrackRecorder implements TrackSink, Flushable, Closeable {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 15_000;
+    public static final int DEFAULT_COMMIT_SIZE = TrackFile.MAX_BLOCK_POINTS;
+
+    private final TrackFileWriter writer;
+    private final TrackJournal journal;
+    private final int commitSize;
+    private final long commitIntervalNanos;
+    private final Thread thread;
+
+    // Ring buffer, guarded by this
+    private final long[] time;
+    private final double[] lat;
+    private final double[] lng;
+    private final double[] altitude;
+    private int head;
+    private int size;
+    private long oldestNanos;
+    private boolean flushRequested;
+    private boolean closed;
+
+    // Counters, guarded by this
+    private long committedCount;
+    private long commitCount;
+    private long droppedCount;
+    private long backpressureCount;
+    private long checkpointCount;
+    private IOException lastError;
+
+    // Batch drained from the ring, owned by the writer thread
+    private final long[] batchTime;
+    private final double[] batchLat;
+    private final double[] batchLng;
+    private final double[] batchAltitude;
+
+    // Journaled fixes that are not synced yet, owned by the writer thread
+    private int unsynced;
+    private long unsyncedNanos;
+
+    public TrackRecorder(TrackFileWriter writer) {
+        this(writer, DEFAULT_CAPACITY, DEFAULT_COMMIT_INTERVAL_MILLIS, DEFAULT_COMMIT_SIZE);
+    }
+
+    /**
+     * @param capacity             number of fixes the ring holds before fixes are dropped
+     * @param commitIntervalMillis longest time a fix waits before it is written
+     * @param commitSize           number of waiting fixes that are written without further delay
+     */
+    public TrackRecorder(TrackFileWriter writer, int capacity, long commitIntervalMillis, int commitSize) {
+        this(writer, null, capacity, commitIntervalMillis, commitSize);
+    }
+
+    /**
+     * @param journal              journal of the track file, positioned at the writer's
+     *                             {@link TrackFileWriter#length()}, or {@code null}
+     * @param capacity             number of fixes the ring holds before fixes are dropped
+     * @param commitIntervalMillis longest time a fix waits before it is written, or synced to
+     *                             the journal
+     * @param commitSize           number of waiting fixes that are written, or synced to the
+     *                             journal, without further delay
+     */
+    public TrackRecorder(TrackFileWriter writer, TrackJournal journal, int capacity, long commitIntervalMillis,
+                         int commitSize) {
+        if (capacity < 1 || commitSize < 1 || commitIntervalMillis < 0) {
+            throw new IllegalArgumentException("capacity: " + capacity + ", commitIntervalMillis: "
+                    + commitIntervalMillis + ", commitSize: " + commitSize);
+        }
+        this.writer = writer;
+        this.journal = journal;
+        this.commitSize = Math.min(commitSize, capacity);
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(commitIntervalMillis);
+        time = new long[capacity];
+        lat = new double[capacity];
+        lng = new double[capacity];
+        altitude = new double[capacity];
+        batchTime = new long[capacity];
+        batchLat = new double[capacity];
+        batchLng = new double[capacity];
+        batchAltitude = new double[capacity];
+
+        thread = new Thread(this::run, "TrackRecorder");
+        thread.start();
+    }
+
+    /**
+     * Opens a recorder that appends to {@code trackFile} through its {@link TrackJournal}.
+     * This is also the recovery after a crash: the track file is cut off after its last intact
+     * block, and the fixes found in the journal are appended to it as a new block and passed to
+     * {@code recovered}.
+     *
+     * @param validLength the valid length of the track file, as reported by
+     *                    {@link MappedTrackFile#getValidLength()}, or 0 for a new file
+     * @param recovered   told about the fixes recovered from the journal
+     */
+    public static TrackRecorder open(File trackFile, long validLength, TrackSink recovered) throws IOException {
+        File journalFile = TrackJournal.fileFor(trackFile);
+        TrackFileWriter writer = TrackFileWriter.append(trackFile, validLength);
+        TrackJournal journal;
+        try {
+            int replayed = TrackJournal.replay(journalFile, validLength, (time, lat, lng, altitude) -> {
+                writer.add(time, lat, lng, altitude);
+                recovered.add(time, lat, lng, altitude);
+            });
+            if (replayed > 0 || writer.length() != validLength) {
+                // The journal must only follow a track file whose header is on storage
+                writer.sync();
+            }
+            journal = TrackJournal.create(journalFile, writer.length());
+        } catch (IOException | RuntimeException e) {
+            try {
+                writer.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        return new TrackRecorder(writer, journal, DEFAULT_CAPACITY, DEFAULT_COMMIT_INTERVAL_MILLIS, DEFAULT_COMMIT_SIZE);
+    }
+
+    @Override
+    public void add(long time, double lat, double lng, double altitude) {
+        offer(time, lat, lng, altitude);
+    }
+
+    /**
+     * Queues a fix for writing.
+     *
+     * @return false if the fix was dropped because the ring is full or the recorder is closed
+     */
+    public synchronized boolean offer(long time, double lat, double lng, double altitude) {
+        int capacity = this.time.length;
+        if (closed || size == capacity) {
+            droppedCount++;
+            return false;
+        }
+        if (size >= capacity - (capacity >> 2)) {
+            backpressureCount++;
+        }
+        int tail = (head + size) % capacity;
+        this.time[tail] = time;
+        this.lat[tail] = lat;
+        this.lng[tail] = lng;
+        this.altitude[tail] = altitude;
+        if (size == 0) {
+            oldestNanos = System.nanoTime();
+        }
+        size++;
+        if (size == commitSize || (journal != null && size == 1)) {
+            notifyAll();
+        }
+        return true;
+    }
+
+    /**
+     * Asks the writer thread to write all waiting fixes now. Does not wait for the write.
+     */
+    @Override
+    public synchronized void flush() {
+        flushRequested = true;
+        notifyAll();
+    }
+
+    /**
+     * Writes all waiting fixes, stops the writer thread and closes the file.
+     *
+     * @throws IOException the last error the writer thread ran into, if any
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        IOException error;
+        synchronized (this) {
+            error = lastError;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /** Fixes written and synced so far. */
+    public synchronized long getCommittedCount() {
+        return committedCount;
+    }
+
+    /** Number of group commits, i.e. fsync calls of the track file or journal, so far. */
+    public synchronized long getCommitCount() {
+        return commitCount;
+    }
+
+    /** Number of journal checkpoints, i.e. blocks written with a journal, so far. */
+    public synchronized long getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    /** Fixes dropped because the ring was full, the recorder closed or writing them failed. */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /** Fixes that were queued while the ring was at least three quarters full. */
+    public synchronized long getBackpressureCount() {
+        return backpressureCount;
+    }
+
+    /** Fixes waiting to be written. */
+    public synchronized int getQueuedCount() {
+        return size;
+    }
+
+    /** The most recent write failure, or {@code null}. */
+    public synchronized IOException getLastError() {
+        return lastError;
+    }
+
+    private void run() {
+        boolean done = false;
+        while (!done) {
+            int count;
+            boolean flush;
+            synchronized (this) {
+                try {
+                    if (journal != null) {
+                        awaitJournal();
+                    } else {
+                        awaitCommit();
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+                count = drain();
+                flush = flushRequested || closed;
+                flushRequested = false;
+                done = closed;
+            }
+            if (journal != null) {
+                journal(count, flush, done);
+            } else if (count > 0) {
+                commit(count);
+            }
+        }
+    }
+
+    /**
+     * Waits until there are fixes to journal or the journal should be synced. Called with the
+     * lock held.
+     */
+    private void awaitJournal() throws InterruptedException {
+        while (!closed && !flushRequested && size == 0) {
+            if (unsynced == 0) {
+                wait();
+            } else {
+                long remaining = unsyncedNanos + commitIntervalNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+    }
+
+    /**
+     * Waits until the waiting fixes should be written. Called with the lock held.
+     */
+    private void awaitCommit() throws InterruptedException {
+        while (!closed && !flushRequested && size < commitSize) {
+            if (size == 0) {
+                wait();
+            } else {
+                long remaining = oldestNanos + commitIntervalNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+    }
+
+    /**
+     * Moves the waiting fixes into the batch arrays. Called with the lock held.
+     */
+    private int drain() {
+        int count = size;
+        int capacity = time.length;
+        int first = Math.min(count, capacity - head);
+        System.arraycopy(time, head, batchTime, 0, first);
+        System.arraycopy(lat, head, batchLat, 0, first);
+        System.arraycopy(lng, head, batchLng, 0, first);
+        System.arraycopy(altitude, head, batchAltitude, 0, first);
+        System.arraycopy(time, 0, batchTime, first, count - first);
+        System.arraycopy(lat, 0, batchLat, first, count - first);
+        System.arraycopy(lng, 0, batchLng, first, count - first);
+        System.arraycopy(altitude, 0, batchAltitude, first, count - first);
+        head = (head + count) % capacity;
+        size = 0;
+        return count;
+    }
+
+    private void commit(int count) {
+        IOException error = null;
+        int added = 0;
+        boolean blockWasFull = false;
+        try {
+            for (; added < count; added++) {
+                blockWasFull = writer.pendingPoints() == TrackFile.MAX_BLOCK_POINTS;
+                writer.add(batchTime[added], batchLat[added], batchLng[added], batchAltitude[added]);
+            }
+            writer.sync();
+        } catch (IOException e) {
+            error = e;
+        } catch (UncheckedIOException e) {
+            error = e.getCause();
+            added += takenOnFailure(blockWasFull);
+        }
+        synchronized (this) {
+            if (error == null) {
+                committedCount += count;
+                commitCount++;
+            } else {
+                lastError = error;
+                droppedCount += count - added;
+            }
+        }
+    }
+
+    /**
+     * Number of fixes, 0 or 1, that {@link TrackFileWriter#add} kept although it failed. The
+     * writer keeps a fix whose block it could not write, but cannot take one while a block
+     * left full by an earlier failure still cannot be written.
+     */
+    private static int takenOnFailure(boolean blockWasFull) {
+        return blockWasFull ? 0 : 1;
+    }
+
+    /**
+     * Journals the batch and writes full blocks. On {@code flush} the journal is synced, and on
+     * {@code close} the remaining fixes are written as a block as well.
+     */
+    private void journal(int count, boolean flush, boolean close) {
+        IOException error = null;
+        long committed = 0;
+        int commits = 0;
+        int checkpoints = 0;
+        int added = 0;
+        boolean adding = false;
+        boolean blockWasFull = false;
+        try {
+            for (int i = 0; i < count; i++) {
+                journal.add(batchTime[i], batchLat[i], batchLng[i], batchAltitude[i]);
+                if (unsynced++ == 0) {
+                    unsyncedNanos = System.nanoTime();
+                }
+                blockWasFull = writer.pendingPoints() == TrackFile.MAX_BLOCK_POINTS;
+                adding = true;
+                writer.add(batchTime[i], batchLat[i], batchLng[i], batchAltitude[i]);
+                adding = false;
+                added++;
+                if (writer.pendingPoints() == 0) {
+                    // A full block was written
+                    checkpoint();
+                    committed += unsynced;
+                    unsynced = 0;
+                    commits++;
+                    checkpoints++;
+                }
+            }
+            journal.write();
+            boolean due = flush || unsynced >= commitSize
+                    || System.nanoTime() - unsyncedNanos >= commitIntervalNanos;
+            if (close && writer.pendingPoints() > 0) {
+                checkpoint();
+                checkpoints++;
+            } else if (unsynced > 0 && due) {
+                journal.sync();
+            }
+            if (unsynced > 0 && due) {
+                committed += unsynced;
+                unsynced = 0;
+                commits++;
+            }
+        } catch (IOException e) {
+            error = e;
+        } catch (UncheckedIOException e) {
+            error = e.getCause();
+            // Failed in the journal, or in the writer
+            added += adding ? takenOnFailure(blockWasFull) : 0;
+        }
+        synchronized (this) {
+            committedCount += committed;
+            commitCount += commits;
+            checkpointCount += checkpoints;
+            if (error != null) {
+                lastError = error;
+                droppedCount += count - added;
+            }
+        }
+    }
+
+    /**
+     * Writes the pending points as a block, syncs the track file and empties the journal.
+     */
+    private void checkpoint() throws IOException {
+        writer.sync();
+        journal.reset(writer.length());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.gps_tracker.track;
+
+/**
+ * Receives track points one at a time, e.g. from a track file reader.
+ */
+public interface TrackSink {
+
+    /**
+     * @param time     fix time in milliseconds since the epoch
+     * @param lat      latitude in degrees
+     * @param lng      longitude in degrees
+     * @param altitude altitude in metres
+     */
+    void add(long time, double lat, double lng, double altitude);
+}
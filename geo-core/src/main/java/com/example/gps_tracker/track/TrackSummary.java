@@ -0,0 +1,96 @@
+package com.example.gps_tracker.track;
+
+import com.example.gps_tracker.vorgeben.PathLength;
+
+/**
+ * Running summary of a track: number of points, first and last time, bounding box and
+ * length. It is kept up to date while recording by passing it every fix, and stored per
+ * session in the {@link TrackArchive} index.
+ *
+ * Not thread-safe.
+ */
+public final class TrackSummary implements TrackSink {
+
+    private int pointCount;
+    private long startTime;
+    private long endTime;
+    private double minLat = Double.NaN;
+    private double minLng = Double.NaN;
+    private double maxLat = Double.NaN;
+    private double maxLng = Double.NaN;
+    /** Keeps the trigonometry of the last point for the length of the next segment. */
+    private final PathLength.Total distance = new PathLength.Total();
+
+    @Override
+    public void add(long time, double lat, double lng, double altitude) {
+        if (pointCount == 0) {
+            startTime = time;
+            minLat = maxLat = lat;
+            minLng = maxLng = lng;
+        } else {
+            minLat = Math.min(minLat, lat);
+            maxLat = Math.max(maxLat, lat);
+            minLng = Math.min(minLng, lng);
+            maxLng = Math.max(maxLng, lng);
+        }
+        distance.add(lat, lng);
+        endTime = time;
+        pointCount++;
+    }
+
+    public void clear() {
+        pointCount = 0;
+        startTime = 0;
+        endTime = 0;
+        minLat = minLng = maxLat = maxLng = Double.NaN;
+        distance.clear();
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public boolean isEmpty() {
+        return pointCount == 0;
+    }
+
+    /**
+     * Time of the first point, 0 if there are none.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Time of the last point, 0 if there are none.
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * The bounding box is NaN if there are no points.
+     */
+    public double getMinLat() {
+        return minLat;
+    }
+
+    public double getMinLng() {
+        return minLng;
+    }
+
+    public double getMaxLat() {
+        return maxLat;
+    }
+
+    public double getMaxLng() {
+        return maxLng;
+    }
+
+    /**
+     * Length of the track in kilometres, see {@link PathLength}.
+     */
+    public double getDistance() {
+        return distance.get();
+    }
+}
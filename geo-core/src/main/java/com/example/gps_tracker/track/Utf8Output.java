@@ -0,0 +1,137 @@
+package com.example.gps_tracker.track;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encodes text as UTF-8 into a fixed byte buffer that is written to an {@link OutputStream}
+ * whenever it fills up. Exporters write through one of these so that memory use does not
+ * depend on the size of the document. Most of what the exporters write is ASCII, which is
+ * copied byte by byte without going through a {@link java.nio.charset.CharsetEncoder}.
+ *
+ * Not thread-safe.
+ */
+public final class Utf8Output implements Flushable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+    private long flushed;
+
+    public Utf8Output(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public Utf8Output(OutputStream out, int bufferSize) {
+        // Room for at least one encoded code point
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, 4)];
+    }
+
+    public Utf8Output append(char c) throws IOException {
+        if (c < 0x80) {
+            if (position == buffer.length) {
+                drain();
+            }
+            buffer[position++] = (byte) c;
+        } else {
+            appendCodePoint(Character.isSurrogate(c) ? '?' : c);
+        }
+        return this;
+    }
+
+    public Utf8Output append(CharSequence s) throws IOException {
+        return append(s, 0, s.length());
+    }
+
+    public Utf8Output append(CharSequence s, int start, int end) throws IOException {
+        int i = start;
+        while (i < end) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                // ASCII run, copied up to the end of the buffer at a time
+                if (position == buffer.length) {
+                    drain();
+                }
+                int stop = Math.min(end, i + buffer.length - position);
+                do {
+                    buffer[position++] = (byte) c;
+                    if (++i == stop) {
+                        break;
+                    }
+                    c = s.charAt(i);
+                } while (c < 0x80);
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1))) {
+                appendCodePoint(Character.toCodePoint(c, s.charAt(i + 1)));
+                i += 2;
+            } else {
+                appendCodePoint(Character.isSurrogate(c) ? '?' : c);
+                i++;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends ASCII characters, e.g. from a number formatter.
+     */
+    public Utf8Output appendAscii(char[] chars, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (position == buffer.length) {
+                drain();
+            }
+            int n = Math.min(length, buffer.length - position);
+            for (int i = 0; i < n; i++) {
+                buffer[position + i] = (byte) chars[offset + i];
+            }
+            position += n;
+            offset += n;
+            length -= n;
+        }
+        return this;
+    }
+
+    /**
+     * Number of bytes appended so far.
+     */
+    public long size() {
+        return flushed + position;
+    }
+
+    /**
+     * Writes the buffered bytes and flushes the stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void appendCodePoint(int codePoint) throws IOException {
+        if (buffer.length - position < 4) {
+            drain();
+        }
+        if (codePoint < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (codePoint >> 6));
+        } else if (codePoint < 0x10000) {
+            buffer[position++] = (byte) (0xE0 | (codePoint >> 12));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        } else {
+            buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        }
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            flushed += position;
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.gps_tracker.vorgeben;
+
+/**
+ * Seven-parameter Helmert transformation between two geodetic datums. All
+ * parameters are converted and combined once when the transformation is
+ * created. Latitude on the target ellipsoid is recovered with Bowring's
+ * closed-form formula instead of an iteration, which is accurate to well
+ * below a millimetre for points near the surface of the earth.
+ *
+ * Heights are assumed to be zero, as in the original conversions of
+ * {@link LatLng}.
+ *
+ * @since 1.1
+ */
+public final class HelmertTransform {
+
+  /**
+   * OSGB36 (Airy 1830) to WGS84
+   */
+  public static final HelmertTransform OSGB36_TO_WGS84 =
+      new HelmertTransform(RefEll.AIRY_1830, RefEll.WGS84, 446.448, -124.157,
+          542.060, -0.0000204894, 0.00004172222, 0.00006861111, 0.00023391666);
+
+  /**
+   * WGS84 to OSGB36 (Airy 1830)
+   */
+  public static final HelmertTransform WGS84_TO_OSGB36 =
+      new HelmertTransform(RefEll.WGS84, RefEll.AIRY_1830, -446.448, 124.157,
+          -542.060, 0.0000204894, -0.00004172222, -0.00006861111,
+          -0.00023391666);
+
+  /**
+   * Source ellipsoid constants
+   */
+  private final double sourceMaj, sourceEcc;
+
+  /**
+   * Target ellipsoid constants
+   */
+  private final double targetMaj, targetMin, targetEcc, targetEPrimeSquared;
+
+  /**
+   * Translation in metres
+   */
+  private final double tx, ty, tz;
+
+  /**
+   * Scale (1 + s) and rotations in radians
+   */
+  private final double scale, rx, ry, rz;
+
+
+  /**
+   * Create a new Helmert transformation.
+   *
+   * @param source
+   *          the ellipsoid of the source datum
+   * @param target
+   *          the ellipsoid of the target datum
+   * @param tx
+   *          translation along the x axis in metres
+   * @param ty
+   *          translation along the y axis in metres
+   * @param tz
+   *          translation along the z axis in metres
+   * @param s
+   *          scale change (not in ppm)
+   * @param rx
+   *          rotation about the x axis in degrees
+   * @param ry
+   *          rotation about the y axis in degrees
+   * @param rz
+   *          rotation about the z axis in degrees
+   * @since 1.1
+   */
+  public HelmertTransform(RefEll source, RefEll target, double tx, double ty,
+      double tz, double s, double rx, double ry, double rz) {
+    this.sourceMaj = source.getMaj();
+    this.sourceEcc = source.getEcc();
+    this.targetMaj = target.getMaj();
+    this.targetMin = target.getMin();
+    this.targetEcc = target.getEcc();
+    this.targetEPrimeSquared = targetEcc / (1.0 - targetEcc);
+    this.tx = tx;
+    this.ty = ty;
+    this.tz = tz;
+    this.scale = 1 + s;
+    this.rx = Math.toRadians(rx);
+    this.ry = Math.toRadians(ry);
+    this.rz = Math.toRadians(rz);
+  }
+
+
+  /**
+   * Transform a series of points in place.
+   *
+   * @param lat
+   *          the latitudes in degrees, overwritten with the results
+   * @param lng
+   *          the longitudes in degrees, overwritten with the results
+   * @param offset
+   *          the index of the first point to transform
+   * @param count
+   *          the number of points to transform
+   * @since 1.1
+   */
+  public void transform(double[] lat, double[] lng, int offset, int count) {
+    for (int i = offset, end = offset + count; i < end; i++) {
+      transform(lat, i, lng, i);
+    }
+  }
+
+
+  /**
+   * Transform a series of points stored as interleaved latitude/longitude
+   * pairs in place.
+   *
+   * @param latLng
+   *          latitude and longitude pairs in degrees, overwritten with the
+   *          results
+   * @param offset
+   *          the index of the first point (not array element) to transform
+   * @param count
+   *          the number of points to transform
+   * @since 1.1
+   */
+  public void transform(double[] latLng, int offset, int count) {
+    for (int i = 2 * offset, end = 2 * (offset + count); i < end; i += 2) {
+      transform(latLng, i, latLng, i + 1);
+    }
+  }
+
+
+  /**
+   * Transform a single point in place.
+   */
+  private void transform(double[] lat, int latIndex, double[] lng,
+      int lngIndex) {
+    double phi = Math.toRadians(lat[latIndex]);
+    double lambda = Math.toRadians(lng[lngIndex]);
+    double sinPhi = Math.sin(phi);
+    double cosPhi = Math.cos(phi);
+
+    // Geodetic to cartesian coordinates on the source ellipsoid
+    double v = sourceMaj / Math.sqrt(1 - sourceEcc * sinPhi * sinPhi);
+    double x = v * cosPhi * Math.cos(lambda);
+    double y = v * cosPhi * Math.sin(lambda);
+    double z = (1 - sourceEcc) * v * sinPhi;
+
+    // Helmert transformation
+    double xB = tx + (x * scale) + (-rz * y) + (ry * z);
+    double yB = ty + (rz * x) + (y * scale) + (-rx * z);
+    double zB = tz + (-ry * x) + (rx * y) + (z * scale);
+
+    // Cartesian to geodetic coordinates on the target ellipsoid (Bowring)
+    double p = Math.sqrt((xB * xB) + (yB * yB));
+    double tanTheta = (zB * targetMaj) / (p * targetMin);
+    double cosTheta = 1.0 / Math.sqrt(1.0 + tanTheta * tanTheta);
+    double sinTheta = tanTheta * cosTheta;
+    double phiB =
+        Math.atan2(zB + targetEPrimeSquared * targetMin * sinTheta * sinTheta
+            * sinTheta, p - targetEcc * targetMaj * cosTheta * cosTheta
+            * cosTheta);
+
+    lat[latIndex] = Math.toDegrees(phiB);
+    lng[lngIndex] = Math.toDegrees(Math.atan2(yB, xB));
+  }
+}
@@ -0,0 +1,351 @@
+package com.example.gps_tracker.vorgeben;
+
+/**
+ * Class to represent a latitude/longitude pair.
+ * 
+ * (c) 2006 Jonathan Stott
+ * 
+ * Created on 11-02-2006
+ * 
+ * @author Jonathan Stott
+ * @version 1.0
+ * @since 1.0
+ */
+public class LatLng {
+
+  /**
+   * Latitude in degrees.
+   */
+  private double lat;
+
+  /**
+   * Longitude in degrees.
+   */
+  private double lng;
+
+
+  /**
+   * Create a new com.example.gps_tracker.vorgeben.LatLng object to represent a latitude/longitude pair.
+   * 
+   * @param lat
+   *          the latitude in degrees
+   * @param lng
+   *          the longitude in degrees
+   * @since 1.0
+   */
+  public LatLng(double lat, double lng) {
+    this.lat = lat;
+    this.lng = lng;
+  }
+
+
+  /**
+   * Get a String representation of this com.example.gps_tracker.vorgeben.LatLng object.
+   * 
+   * @return a String representation of this com.example.gps_tracker.vorgeben.LatLng object.
+   * @since 1.0
+   */
+  public String toString() {
+    return "(" + this.lat + ", " + this.lng + ")";
+  }
+
+
+  /**
+   * Convert this latitude and longitude into an OSGB (Ordnance Survey of Great
+   * Britain) grid reference.
+   * 
+   * @return the converted OSGB grid reference
+   * @since 1.0
+   */
+  public OSRef toOSRef() {
+    TransverseMercator grid = RefEll.OSGB_GRID;
+    double aF0 = grid.getEllipsoid().getMaj() * grid.getScale();
+    double eSquared = grid.getEllipsoid().getEcc();
+    double phi = Math.toRadians(getLat());
+    double lambda = Math.toRadians(getLng());
+    double sinPhi = Math.sin(phi);
+    double cosPhi = Math.cos(phi);
+    double tanSquared = (sinPhi * sinPhi) / (cosPhi * cosPhi);
+    double cosCubed = cosPhi * cosPhi * cosPhi;
+    double cosFifth = cosCubed * cosPhi * cosPhi;
+    double nuSquared = 1.0 - eSquared * sinPhi * sinPhi;
+    double v = aF0 / Math.sqrt(nuSquared);
+    double rho = aF0 * (1.0 - eSquared) / (nuSquared * Math.sqrt(nuSquared));
+    double etaSquared = (v / rho) - 1.0;
+    double M = grid.originMeridianArc(phi);
+    double I = M + grid.getFalseNorthing();
+    double II = (v / 2.0) * sinPhi * cosPhi;
+    double III =
+        (v / 24.0) * sinPhi * cosCubed
+            * (5.0 - tanSquared + (9.0 * etaSquared));
+    double IIIA =
+        (v / 720.0) * sinPhi * cosFifth
+            * (61.0 - (58.0 * tanSquared) + tanSquared * tanSquared);
+    double IV = v * cosPhi;
+    double V = (v / 6.0) * cosCubed * ((v / rho) - tanSquared);
+    double VI =
+        (v / 120.0)
+            * cosFifth
+            * (5.0 - (18.0 * tanSquared) + (tanSquared * tanSquared)
+                + (14 * etaSquared) - (58 * tanSquared * etaSquared));
+
+    double dLambda = lambda - grid.getLongitudeOrigin();
+    double dLambdaSquared = dLambda * dLambda;
+    double N =
+        I + dLambdaSquared * (II + dLambdaSquared * (III + dLambdaSquared * IIIA));
+    double E =
+        grid.getFalseEasting() + dLambda
+            * (IV + dLambdaSquared * (V + dLambdaSquared * VI));
+
+    return new OSRef(E, N);
+  }
+
+
+  /**
+   * Convert this latitude and longitude to a UTM reference.
+   * 
+   * @return the converted UTM reference
+   * @since 1.0
+   */
+  public UTMRef toUTMRef() {
+    int longitudeZone = getUTMLongitudeZone(lat, lng);
+    double[] en = new double[2];
+    projectUTM(lat, lng, longitudeZone, en, 0, en, 1);
+    return new UTMRef(en[0], en[1], UTMRef.getUTMLatitudeZoneLetter(lat),
+        longitudeZone);
+  }
+
+
+  /**
+   * Convert a whole series of latitudes and longitudes to UTM references
+   * without creating any intermediate objects. The results are written into
+   * the caller-supplied arrays at the same indices as the input points.
+   * 
+   * @param lat
+   *          the latitudes in degrees
+   * @param lng
+   *          the longitudes in degrees
+   * @param offset
+   *          the index of the first point to convert
+   * @param count
+   *          the number of points to convert
+   * @param eastings
+   *          receives the UTM eastings
+   * @param northings
+   *          receives the UTM northings
+   * @param lngZones
+   *          receives the longitude zone numbers, may be null
+   * @param latZones
+   *          receives the latitude zone characters, may be null
+   * @since 1.1
+   */
+  public static void toUTMRef(double[] lat, double[] lng, int offset,
+      int count, double[] eastings, double[] northings, int[] lngZones,
+      char[] latZones) {
+    for (int i = offset, end = offset + count; i < end; i++) {
+      double latitude = lat[i];
+      double longitude = lng[i];
+      int longitudeZone = getUTMLongitudeZone(latitude, longitude);
+      projectUTM(latitude, longitude, longitudeZone, eastings, i, northings, i);
+      if (lngZones != null) {
+        lngZones[i] = longitudeZone;
+      }
+      if (latZones != null) {
+        latZones[i] = UTMRef.getUTMLatitudeZoneLetter(latitude);
+      }
+    }
+  }
+
+
+  /**
+   * Convert all of the given latitudes and longitudes to UTM eastings and
+   * northings. See {@link #toUTMRef(double[], double[], int, int, double[],
+   * double[], int[], char[])}.
+   * 
+   * @param lat
+   *          the latitudes in degrees
+   * @param lng
+   *          the longitudes in degrees
+   * @param eastings
+   *          receives the UTM eastings
+   * @param northings
+   *          receives the UTM northings
+   * @since 1.1
+   */
+  public static void toUTMRef(double[] lat, double[] lng, double[] eastings,
+      double[] northings) {
+    toUTMRef(lat, lng, 0, lat.length, eastings, northings, null, null);
+  }
+
+
+  /**
+   * Work out the UTM longitude zone number for the given position, taking
+   * the special zones for Norway and Svalbard into account.
+   * 
+   * @param latitude
+   *          the latitude in degrees
+   * @param longitude
+   *          the longitude in degrees
+   * @return the UTM longitude zone number
+   * @since 1.1
+   */
+  public static int getUTMLongitudeZone(double latitude, double longitude) {
+    int longitudeZone = (int) Math.floor((longitude + 180.0) / 6.0) + 1;
+
+    // Longitude 180 belongs to the last zone
+    if (longitudeZone > 60) {
+      longitudeZone = 60;
+    }
+
+    // Special zone for Norway
+    if (latitude >= 56.0 && latitude < 64.0 && longitude >= 3.0
+        && longitude < 12.0) {
+      longitudeZone = 32;
+    }
+
+    // Special zones for Svalbard
+    if (latitude >= 72.0 && latitude < 84.0) {
+      if (longitude >= 0.0 && longitude < 9.0) {
+        longitudeZone = 31;
+      } else if (longitude >= 9.0 && longitude < 21.0) {
+        longitudeZone = 33;
+      } else if (longitude >= 21.0 && longitude < 33.0) {
+        longitudeZone = 35;
+      } else if (longitude >= 33.0 && longitude < 42.0) {
+        longitudeZone = 37;
+      }
+    }
+    return longitudeZone;
+  }
+
+
+  /**
+   * Project a single point into the given UTM longitude zone and store the
+   * easting and northing in the given arrays.
+   */
+  private static void projectUTM(double latitude, double longitude,
+      int longitudeZone, double[] eastings, int eastingIndex,
+      double[] northings, int northingIndex) {
+    TransverseMercator zone = RefEll.WGS84.getUTMZone(longitudeZone);
+    double UTM_F0 = zone.getScale();
+    double a = RefEll.WGS84.getMaj();
+    double eSquared = RefEll.WGS84.getEcc();
+
+    double latitudeRad = latitude * (Math.PI / 180.0);
+    double longitudeRad = longitude * (Math.PI / 180.0);
+
+    double ePrimeSquared = zone.getEPrimeSquared();
+
+    double sinLatitude = Math.sin(latitudeRad);
+    double cosLatitude = Math.cos(latitudeRad);
+    double tanLatitude = Math.tan(latitudeRad);
+    double n = a / Math.sqrt(1 - eSquared * sinLatitude * sinLatitude);
+    double t = tanLatitude * tanLatitude;
+    double c = ePrimeSquared * cosLatitude * cosLatitude;
+    double A = cosLatitude * (longitudeRad - zone.getLongitudeOrigin());
+
+    double M = zone.meridianArc(latitudeRad);
+
+    double ASquared = A * A;
+    double UTMEasting =
+        (UTM_F0
+            * n
+            * A
+            * (1 + ASquared
+                * ((1 - t + c) / 6 + ASquared
+                    * (5 - 18 * t + t * t + 72 * c - 58 * ePrimeSquared) / 120)) + zone
+            .getFalseEasting());
+
+    double UTMNorthing =
+        (UTM_F0 * (M + n
+            * tanLatitude
+            * ASquared
+            * (0.5 + ASquared
+                * ((5 - t + (9 * c) + (4 * c * c)) / 24 + ASquared
+                    * (61 - (58 * t) + (t * t) + (600 * c) - (330 * ePrimeSquared))
+                    / 720))));
+
+    // Adjust for the southern hemisphere
+    if (latitude < 0) {
+      UTMNorthing += 10000000.0;
+    }
+
+    eastings[eastingIndex] = UTMEasting;
+    northings[northingIndex] = UTMNorthing;
+  }
+
+
+  /**
+   * Convert this com.example.gps_tracker.vorgeben.LatLng from the OSGB36 datum to the WGS84 datum using an
+   * approximate Helmert transformation.
+   * 
+   * @since 1.0
+   */
+  public void toWGS84() {
+    double[] latLng = {lat, lng};
+    HelmertTransform.OSGB36_TO_WGS84.transform(latLng, 0, 1);
+    lat = latLng[0];
+    lng = latLng[1];
+  }
+
+
+  /**
+   * Convert this com.example.gps_tracker.vorgeben.LatLng from the WGS84 datum to the OSGB36 datum using an
+   * approximate Helmert transformation.
+   * 
+   * @since 1.0
+   */
+  public void toOSGB36() {
+    double[] latLng = {lat, lng};
+    HelmertTransform.WGS84_TO_OSGB36.transform(latLng, 0, 1);
+    lat = latLng[0];
+    lng = latLng[1];
+  }
+
+
+  /**
+   * Calculate the surface distance in kilometres from the this com.example.gps_tracker.vorgeben.LatLng to the
+   * given com.example.gps_tracker.vorgeben.LatLng.
+   * 
+   * @param ll
+   * @return the surface distance in km
+   * @since 1.0
+   */
+  public double distance(LatLng ll) {
+    double er = 6366.707;
+
+    double latFrom = Math.toRadians(getLat());
+    double latTo = Math.toRadians(ll.getLat());
+    double lngFrom = Math.toRadians(getLng());
+    double lngTo = Math.toRadians(ll.getLng());
+
+    double d =
+        Math.acos(Math.sin(latFrom) * Math.sin(latTo) + Math.cos(latFrom)
+            * Math.cos(latTo) * Math.cos(lngTo - lngFrom))
+            * er;
+
+    return d;
+  }
+
+
+  /**
+   * Return the latitude in degrees.
+   * 
+   * @return the latitude in degrees
+   * @since 1.0
+   */
+  public double getLat() {
+    return lat;
+  }
+
+
+  /**
+   * Return the longitude in degrees.
+   * 
+   * @return the longitude in degrees
+   * @since 1.0
+   */
+  public double getLng() {
+    return lng;
+  }
+}
\ No newline at end of file
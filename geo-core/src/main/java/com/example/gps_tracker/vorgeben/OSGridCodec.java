@@ -0,0 +1,414 @@
+package com.example.gps_tracker.vorgeben;
+
+/**
+ * Parses and formats Ordnance Survey grid references (e.g. "TG514131" or
+ * "TG 51409 13177") without creating intermediate Strings. References are
+ * read from any range of a CharSequence or char array and written into a
+ * caller-supplied StringBuilder or char array, so large numbers of grid
+ * references can be converted without generating garbage.
+ *
+ * A grid reference consists of two letters identifying the 100 km square
+ * followed by an even number of digits (0 to 10), half for the easting and
+ * half for the northing. Spaces between the parts are ignored when parsing.
+ *
+ * @since 1.1
+ */
+public final class OSGridCodec {
+
+  /**
+   * Size of a grid square in metres for each number of digits per axis
+   */
+  private static final int[] RESOLUTION = {100000, 10000, 1000, 100, 10, 1};
+
+
+  private OSGridCodec() {
+  }
+
+
+  /**
+   * Parse the grid reference in the given range of a CharSequence.
+   *
+   * @param ref
+   *          the characters containing the grid reference
+   * @param start
+   *          the index of the first character of the grid reference
+   * @param end
+   *          the index after the last character of the grid reference
+   * @param eastings
+   *          receives the easting in metres
+   * @param northings
+   *          receives the northing in metres
+   * @param index
+   *          the index in eastings and northings to store the result at
+   * @throws IllegalArgumentException
+   *           if the range does not contain a valid grid reference
+   * @since 1.1
+   */
+  public static void parse(CharSequence ref, int start, int end,
+      double[] eastings, double[] northings, int index)
+      throws IllegalArgumentException {
+    parse(ref, start, end, eastings, index, northings, index);
+  }
+
+
+  /**
+   * Parse the grid reference in the given range of a char array.
+   *
+   * @param ref
+   *          the characters containing the grid reference
+   * @param start
+   *          the index of the first character of the grid reference
+   * @param end
+   *          the index after the last character of the grid reference
+   * @param eastings
+   *          receives the easting in metres
+   * @param northings
+   *          receives the northing in metres
+   * @param index
+   *          the index in eastings and northings to store the result at
+   * @throws IllegalArgumentException
+   *           if the range does not contain a valid grid reference
+   * @since 1.1
+   */
+  public static void parse(char[] ref, int start, int end, double[] eastings,
+      double[] northings, int index) throws IllegalArgumentException {
+    parse(null, ref, start, end, eastings, index, northings, index);
+  }
+
+
+  /**
+   * Parse a grid reference into separate arrays and indices.
+   */
+  static void parse(CharSequence ref, int start, int end, double[] eastings,
+      int eastingIndex, double[] northings, int northingIndex)
+      throws IllegalArgumentException {
+    parse(ref, null, start, end, eastings, eastingIndex, northings,
+        northingIndex);
+  }
+
+
+  /**
+   * Parse a grid reference from either a CharSequence or, if it is not null,
+   * a char array, so that both are validated by the same code without
+   * wrapping the array.
+   */
+  private static void parse(CharSequence seq, char[] array, int start,
+      int end, double[] eastings, int eastingIndex, double[] northings,
+      int northingIndex) throws IllegalArgumentException {
+    while (start < end && charAt(seq, array, start) == ' ') {
+      start++;
+    }
+    if (end - start < 2) {
+      throw invalid(seq, array, start, end);
+    }
+    int square =
+        squareOffset(charAt(seq, array, start), charAt(seq, array, start + 1));
+    if (square < 0) {
+      throw invalid(seq, array, start, end);
+    }
+
+    int digits = 0;
+    for (int i = start + 2; i < end; i++) {
+      char c = charAt(seq, array, i);
+      if (c >= '0' && c <= '9') {
+        digits++;
+      } else if (c != ' ') {
+        throw invalid(seq, array, start, end);
+      }
+    }
+    if (digits % 2 != 0 || digits > 10) {
+      throw invalid(seq, array, start, end);
+    }
+
+    int half = digits / 2;
+    int east = 0;
+    int north = 0;
+    int seen = 0;
+    for (int i = start + 2; i < end; i++) {
+      char c = charAt(seq, array, i);
+      if (c != ' ') {
+        if (seen < half) {
+          east = east * 10 + (c - '0');
+        } else {
+          north = north * 10 + (c - '0');
+        }
+        seen++;
+      }
+    }
+    store(square, east, north, half, eastings, eastingIndex, northings,
+        northingIndex);
+  }
+
+
+  private static char charAt(CharSequence seq, char[] array, int index) {
+    return array != null ? array[index] : seq.charAt(index);
+  }
+
+
+  /**
+   * Parse all grid references in the given range of a CharSequence. The
+   * references may be separated by any whitespace, commas or semicolons.
+   *
+   * @param refs
+   *          the characters containing the grid references
+   * @param start
+   *          the index of the first character to parse
+   * @param end
+   *          the index after the last character to parse
+   * @param eastings
+   *          receives the eastings in metres
+   * @param northings
+   *          receives the northings in metres
+   * @param offset
+   *          the index in eastings and northings to store the first result
+   *          at
+   * @return the number of grid references parsed
+   * @throws IllegalArgumentException
+   *           if one of the references is not valid
+   * @since 1.1
+   */
+  public static int parseAll(CharSequence refs, int start, int end,
+      double[] eastings, double[] northings, int offset)
+      throws IllegalArgumentException {
+    int count = 0;
+    int i = start;
+    while (i < end) {
+      while (i < end && isSeparator(refs.charAt(i))) {
+        i++;
+      }
+      if (i == end) {
+        break;
+      }
+      // A reference is two letters followed by digits, possibly with
+      // single spaces in between
+      int refStart = i;
+      i += 2;
+      while (i < end
+          && (isDigit(refs.charAt(i)) || (refs.charAt(i) == ' '
+              && i + 1 < end && isDigit(refs.charAt(i + 1))))) {
+        i++;
+      }
+      parse(refs, refStart, Math.min(i, end), eastings, offset + count,
+          northings, offset + count);
+      count++;
+    }
+    return count;
+  }
+
+
+  /**
+   * Format the given position as a grid reference and append it to a
+   * StringBuilder.
+   *
+   * @param easting
+   *          the easting in metres
+   * @param northing
+   *          the northing in metres
+   * @param digits
+   *          the total number of digits, an even number from 0 to 10 (6 gives
+   *          a reference like "TG514131")
+   * @param out
+   *          the StringBuilder to append to
+   * @throws IllegalArgumentException
+   *           if digits is not an even number from 0 to 10
+   * @since 1.1
+   */
+  public static void format(double easting, double northing, int digits,
+      StringBuilder out) throws IllegalArgumentException {
+    checkDigits(digits);
+    int half = digits / 2;
+    int hundredkmE = (int) Math.floor(easting / 100000);
+    int hundredkmN = (int) Math.floor(northing / 100000);
+    out.append(firstLetter(hundredkmE, hundredkmN));
+    out.append(secondLetter(hundredkmE, hundredkmN));
+    int e = (int) Math.floor((easting - (100000 * hundredkmE)) / RESOLUTION[half]);
+    int n = (int) Math.floor((northing - (100000 * hundredkmN)) / RESOLUTION[half]);
+    appendPadded(e, half, out);
+    appendPadded(n, half, out);
+  }
+
+
+  /**
+   * Format the given position as a grid reference into a char array.
+   *
+   * @param easting
+   *          the easting in metres
+   * @param northing
+   *          the northing in metres
+   * @param digits
+   *          the total number of digits, an even number from 0 to 10
+   * @param out
+   *          the array to write to, which must have room for digits + 2
+   *          characters
+   * @param offset
+   *          the index to write the first character at
+   * @return the index after the last character written
+   * @throws IllegalArgumentException
+   *           if digits is not an even number from 0 to 10
+   * @since 1.1
+   */
+  public static int format(double easting, double northing, int digits,
+      char[] out, int offset) throws IllegalArgumentException {
+    checkDigits(digits);
+    int half = digits / 2;
+    int hundredkmE = (int) Math.floor(easting / 100000);
+    int hundredkmN = (int) Math.floor(northing / 100000);
+    out[offset] = firstLetter(hundredkmE, hundredkmN);
+    out[offset + 1] = secondLetter(hundredkmE, hundredkmN);
+    int e = (int) Math.floor((easting - (100000 * hundredkmE)) / RESOLUTION[half]);
+    int n = (int) Math.floor((northing - (100000 * hundredkmN)) / RESOLUTION[half]);
+    writePadded(e, half, out, offset + 2);
+    writePadded(n, half, out, offset + 2 + half);
+    return offset + 2 + digits;
+  }
+
+
+  /**
+   * Format a series of positions as grid references and append them to a
+   * StringBuilder, each followed by the given separator.
+   *
+   * @param eastings
+   *          the eastings in metres
+   * @param northings
+   *          the northings in metres
+   * @param offset
+   *          the index of the first position to format
+   * @param count
+   *          the number of positions to format
+   * @param digits
+   *          the total number of digits, an even number from 0 to 10
+   * @param separator
+   *          the character to append after each grid reference
+   * @param out
+   *          the StringBuilder to append to
+   * @throws IllegalArgumentException
+   *           if digits is not an even number from 0 to 10
+   * @since 1.1
+   */
+  public static void formatAll(double[] eastings, double[] northings,
+      int offset, int count, int digits, char separator, StringBuilder out)
+      throws IllegalArgumentException {
+    checkDigits(digits);
+    out.ensureCapacity(out.length() + count * (digits + 3));
+    char[] ref = new char[digits + 3];
+    ref[digits + 2] = separator;
+    for (int i = offset, end = offset + count; i < end; i++) {
+      format(eastings[i], northings[i], digits, ref, 0);
+      out.append(ref, 0, ref.length);
+    }
+  }
+
+
+  /**
+   * Work out the offset of the 100 km square identified by the two letters,
+   * packed as (eastOffset / 100 km) * 32 + (northOffset / 100 km), or -1 if
+   * the letters are not valid.
+   */
+  private static int squareOffset(char char1, char char2) {
+    char1 = Character.toUpperCase(char1);
+    char2 = Character.toUpperCase(char2);
+    int east;
+    int north;
+    if (char1 == 'S') {
+      east = 0;
+      north = 0;
+    } else if (char1 == 'T') {
+      east = 5;
+      north = 0;
+    } else if (char1 == 'N') {
+      east = 0;
+      north = 5;
+    } else if (char1 == 'O') {
+      east = 5;
+      north = 5;
+    } else if (char1 == 'H') {
+      east = 0;
+      north = 10;
+    } else {
+      return -1;
+    }
+    if (char2 < 'A' || char2 > 'Z' || char2 == 'I') {
+      return -1;
+    }
+    int char2ord = char2;
+    if (char2ord > 73)
+      char2ord--; // Adjust for no I
+    east += (char2ord - 65) % 5;
+    north += 4 - (char2ord - 65) / 5;
+    return east * 32 + north;
+  }
+
+
+  /**
+   * Store the easting and northing of a parsed grid reference.
+   */
+  private static void store(int square, int east, int north, int half,
+      double[] eastings, int eastingIndex, double[] northings,
+      int northingIndex) {
+    eastings[eastingIndex] = (square / 32) * 100000.0 + east * (double) RESOLUTION[half];
+    northings[northingIndex] = (square % 32) * 100000.0 + north * (double) RESOLUTION[half];
+  }
+
+
+  private static char firstLetter(int hundredkmE, int hundredkmN) {
+    if (hundredkmN < 5) {
+      return hundredkmE < 5 ? 'S' : 'T';
+    } else if (hundredkmN < 10) {
+      return hundredkmE < 5 ? 'N' : 'O';
+    } else {
+      return 'H';
+    }
+  }
+
+
+  private static char secondLetter(int hundredkmE, int hundredkmN) {
+    int index = 65 + ((4 - (hundredkmN % 5)) * 5) + (hundredkmE % 5);
+    if (index >= 73)
+      index++;
+    return (char) index;
+  }
+
+
+  private static void appendPadded(int value, int width, StringBuilder out) {
+    if (width == 0) {
+      return;
+    }
+    for (int divisor = RESOLUTION[6 - width]; divisor > 0; divisor /= 10) {
+      out.append((char) ('0' + (value / divisor) % 10));
+    }
+  }
+
+
+  private static void writePadded(int value, int width, char[] out, int offset) {
+    for (int i = offset + width - 1; i >= offset; i--) {
+      out[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+
+  private static void checkDigits(int digits) throws IllegalArgumentException {
+    if (digits < 0 || digits > 10 || digits % 2 != 0) {
+      throw new IllegalArgumentException("Invalid number of digits: " + digits);
+    }
+  }
+
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+
+  private static boolean isSeparator(char c) {
+    return Character.isWhitespace(c) || c == ',' || c == ';';
+  }
+
+
+  private static IllegalArgumentException invalid(CharSequence seq,
+      char[] array, int start, int end) {
+    CharSequence ref =
+        array != null ? new String(array, start, end - start) : seq
+            .subSequence(start, end);
+    return new IllegalArgumentException("Invalid OS grid reference: " + ref);
+  }
+}
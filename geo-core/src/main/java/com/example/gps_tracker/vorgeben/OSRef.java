@@ -0,0 +1,175 @@
+package com.example.gps_tracker.vorgeben;
+
+/**
+ * Class to represent an Ordnance Survey grid reference
+ * 
+ * (c) 2006 Jonathan Stott
+ * 
+ * Created on 11-02-2006
+ * 
+ * @author Jonathan Stott
+ * @version 1.0
+ * @since 1.0
+ */
+public class OSRef {
+
+  /**
+   * Easting
+   */
+  private double easting;
+
+  /**
+   * Northing
+   */
+  private double northing;
+
+
+  /**
+   * Create a new Ordnance Survey grid reference.
+   * 
+   * @param easting
+   *          the easting in metres
+   * @param northing
+   *          the northing in metres
+   * @since 1.0
+   */
+  public OSRef(double easting, double northing) {
+    this.easting = easting;
+    this.northing = northing;
+  }
+
+
+  /**
+   * Take a string formatted as a six-figure OS grid reference (e.g. "TG514131")
+   * and create a new com.example.gps_tracker.OSRef object that represents that grid reference. The
+   * first character must be H, N, S, O or T. The second character can be any
+   * uppercase character from A through Z excluding I. References with more
+   * or fewer figures (e.g. "TG5140913177") are accepted as well, see
+   * {@link OSGridCodec}.
+   * 
+   * @param ref
+   *          a String representing a six-figure Ordnance Survey grid reference
+   *          in the form XY123456
+   * @throws IllegalArgumentException
+   *           if ref is not of the form XY123456
+   * @since 1.0
+   */
+  public OSRef(String ref) throws IllegalArgumentException {
+    double[] en = new double[2];
+    OSGridCodec.parse(ref, 0, ref.length(), en, 0, en, 1);
+    easting = en[0];
+    northing = en[1];
+  }
+
+
+  /**
+   * Return a String representation of this OSGB grid reference showing the
+   * easting and northing.
+   * 
+   * @return a String represenation of this OSGB grid reference
+   * @since 1.0
+   */
+  public String toString() {
+    return "(" + easting + ", " + northing + ")";
+  }
+
+
+  /**
+   * Return a String representation of this OSGB grid reference using the
+   * six-figure notation in the form XY123456
+   * 
+   * @return a String representing this OSGB grid reference in six-figure
+   *         notation
+   * @since 1.0
+   */
+  public String toSixFigureString() {
+    char[] ref = new char[8];
+    OSGridCodec.format(easting, northing, 6, ref, 0);
+    return new String(ref);
+  }
+
+
+  /**
+   * Convert this OSGB grid reference to a latitude/longitude pair using the
+   * OSGB36 datum. Note that, the com.example.gps_tracker.vorgeben.LatLng object may need to be converted to the
+   * WGS84 datum depending on the application.
+   * 
+   * @return a com.example.gps_tracker.vorgeben.LatLng object representing this OSGB grid reference using the
+   *         OSGB36 datum
+   * @since 1.0
+   */
+  public LatLng toLatLng() {
+    TransverseMercator grid = RefEll.OSGB_GRID;
+    double N0 = grid.getFalseNorthing();
+    double E0 = grid.getFalseEasting();
+    double phi0 = grid.getLatitudeOrigin();
+    double lambda0 = grid.getLongitudeOrigin();
+    double aF0 = grid.getEllipsoid().getMaj() * grid.getScale();
+    double eSquared = grid.getEllipsoid().getEcc();
+    double E = this.easting;
+    double N = this.northing;
+    double M = 0.0;
+    double phiPrime = ((N - N0) / aF0) + phi0;
+    do {
+      M = grid.originMeridianArc(phiPrime);
+      phiPrime += (N - N0 - M) / aF0;
+    } while ((N - N0 - M) >= 0.001);
+    double sinPhi = Math.sin(phiPrime);
+    double cosPhi = Math.cos(phiPrime);
+    double tanPhi = sinPhi / cosPhi;
+    double tanSquared = tanPhi * tanPhi;
+    double secPhi = 1.0 / cosPhi;
+    double nuSquared = 1.0 - eSquared * sinPhi * sinPhi;
+    double v = aF0 / Math.sqrt(nuSquared);
+    double rho = aF0 * (1.0 - eSquared) / (nuSquared * Math.sqrt(nuSquared));
+    double etaSquared = (v / rho) - 1.0;
+    double vCubed = v * v * v;
+    double vFifth = vCubed * v * v;
+    double VII = tanPhi / (2 * rho * v);
+    double VIII =
+        (tanPhi / (24.0 * rho * vCubed))
+            * (5.0 + (3.0 * tanSquared) + etaSquared - (9.0 * tanSquared * etaSquared));
+    double IX =
+        (tanPhi / (720.0 * rho * vFifth))
+            * (61.0 + (90.0 * tanSquared) + (45.0 * tanSquared * tanSquared));
+    double X = secPhi / v;
+    double XI = (secPhi / (6.0 * vCubed)) * ((v / rho) + (2 * tanSquared));
+    double XII =
+        (secPhi / (120.0 * vFifth))
+            * (5.0 + (28.0 * tanSquared) + (24.0 * tanSquared * tanSquared));
+    double XIIA =
+        (secPhi / (5040.0 * vFifth * v * v))
+            * (61.0 + (662.0 * tanSquared) + (1320.0 * tanSquared * tanSquared)
+                + (720.0 * tanSquared * tanSquared * tanSquared));
+    double dE = E - E0;
+    double dESquared = dE * dE;
+    double phi =
+        phiPrime - dESquared * (VII - dESquared * (VIII - dESquared * IX));
+    double lambda =
+        lambda0 + dE * (X - dESquared * (XI - dESquared * (XII - dESquared * XIIA)));
+
+    return new LatLng(Math.toDegrees(phi), Math.toDegrees(lambda));
+  }
+
+
+  /**
+   * Get the easting.
+   * 
+   * @return the easting in metres
+   * @since 1.0
+   */
+  public double getEasting() {
+    return easting;
+  }
+
+
+  /**
+   * Get the northing.
+   * 
+   * @return the northing in metres
+   * @since 1.0
+   */
+  public double getNorthing() {
+    return northing;
+  }
+}
@@ -0,0 +1,319 @@
+package com.example.gps_tracker.vorgeben;
+
+import java.util.Arrays;
+
+/**
+ * Cumulative surface distance along a track. The distance between
+ * consecutive points uses the haversine formula, which unlike the spherical
+ * law of cosines used by {@link LatLng#distance(LatLng)} stays accurate for
+ * the few metres between two GPS fixes. The sine and cosine of each point's
+ * half angles are computed once and shared by both segments the point belongs
+ * to, so one pass over a track costs four trigonometric calls per point plus
+ * one asin per segment.
+ *
+ * Distances are in kilometres on the same sphere as
+ * {@link LatLng#distance(LatLng)}. Once built, the total length, the distance
+ * at any index and the index at any distance are answered in O(1) or
+ * O(log n). Points can be appended one at a time while recording.
+ *
+ * @since 1.1
+ */
+public final class PathLength {
+
+  /**
+   * Radius of the sphere in kilometres
+   */
+  public static final double EARTH_RADIUS = 6366.707;
+
+  /**
+   * Cumulative distance in kilometres from the first point to each point
+   */
+  private double[] cumulative;
+
+  /**
+   * Number of points
+   */
+  private int count;
+
+  /**
+   * Running length with the half angle terms of the last point, for
+   * appending
+   */
+  private final Total total = new Total();
+
+
+  /**
+   * Create an empty path.
+   *
+   * @since 1.1
+   */
+  public PathLength() {
+    cumulative = new double[16];
+  }
+
+
+  /**
+   * Create a path from the given points.
+   *
+   * @param lat
+   *          the latitudes in degrees
+   * @param lng
+   *          the longitudes in degrees
+   * @param count
+   *          the number of points
+   * @since 1.1
+   */
+  public PathLength(double[] lat, double[] lng, int count) {
+    cumulative = new double[Math.max(count, 16)];
+    for (int i = 0; i < count; i++) {
+      add(lat[i], lng[i]);
+    }
+  }
+
+
+  /**
+   * Calculate the cumulative distances along a track in one pass.
+   * out[offset] is set to zero.
+   *
+   * @param lat
+   *          the latitudes in degrees
+   * @param lng
+   *          the longitudes in degrees
+   * @param offset
+   *          the index of the first point
+   * @param count
+   *          the number of points
+   * @param out
+   *          receives the cumulative distances in kilometres at the same
+   *          indices as the points
+   * @return the total length in kilometres
+   * @since 1.1
+   */
+  public static double cumulativeDistance(double[] lat, double[] lng,
+      int offset, int count, double[] out) {
+    Total total = new Total();
+    for (int i = offset, end = offset + count; i < end; i++) {
+      out[i] = total.add(lat[i], lng[i]);
+    }
+    return total.get();
+  }
+
+
+  /**
+   * Haversine distance between two points given by the sine and cosine of
+   * their half angles. sin((b - a) / 2) is expanded with the angle difference
+   * formula, so no further trigonometric calls are needed.
+   */
+  private static double haversine(double sinHalfLat1, double cosHalfLat1,
+      double sinHalfLng1, double cosHalfLng1, double cosLat1,
+      double sinHalfLat2, double cosHalfLat2, double sinHalfLng2,
+      double cosHalfLng2, double cosLat2) {
+    double sinHalfDLat = sinHalfLat2 * cosHalfLat1 - cosHalfLat2 * sinHalfLat1;
+    double sinHalfDLng = sinHalfLng2 * cosHalfLng1 - cosHalfLng2 * sinHalfLng1;
+    double h =
+        sinHalfDLat * sinHalfDLat + cosLat1 * cosLat2 * sinHalfDLng
+            * sinHalfDLng;
+    return 2.0 * EARTH_RADIUS * asin(Math.min(1.0, Math.sqrt(h)));
+  }
+
+
+  /**
+   * Calculate asin(x) for 0 <= x <= 1. Consecutive fixes are almost always
+   * less than a few kilometres apart, where the Taylor series up to x^7 is
+   * exact to double precision and much cheaper than Math.asin.
+   */
+  private static double asin(double x) {
+    if (x < 1e-3) {
+      double xSquared = x * x;
+      return x
+          * (1.0 + xSquared
+              * (1.0 / 6.0 + xSquared * (3.0 / 40.0 + xSquared * (5.0 / 112.0))));
+    }
+    return Math.asin(x);
+  }
+
+
+  /**
+   * Append a point to the end of the path.
+   *
+   * @param lat
+   *          the latitude in degrees
+   * @param lng
+   *          the longitude in degrees
+   * @since 1.1
+   */
+  public void add(double lat, double lng) {
+    if (count == cumulative.length) {
+      cumulative = Arrays.copyOf(cumulative, count * 2);
+    }
+    cumulative[count++] = total.add(lat, lng);
+  }
+
+
+  /**
+   * Remove all points.
+   *
+   * @since 1.1
+   */
+  public void clear() {
+    count = 0;
+    total.clear();
+  }
+
+
+  /**
+   * Return the number of points.
+   *
+   * @return the number of points
+   * @since 1.1
+   */
+  public int size() {
+    return count;
+  }
+
+
+  /**
+   * Return the total length of the path.
+   *
+   * @return the total length in kilometres
+   * @since 1.1
+   */
+  public double getTotal() {
+    return count == 0 ? 0.0 : cumulative[count - 1];
+  }
+
+
+  /**
+   * Return the distance along the path from the first point to the given
+   * point.
+   *
+   * @param index
+   *          the index of the point
+   * @return the distance in kilometres
+   * @throws IndexOutOfBoundsException
+   *           if index is not a valid point index
+   * @since 1.1
+   */
+  public double getDistance(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: "
+          + count);
+    }
+    return cumulative[index];
+  }
+
+
+  /**
+   * Find the last point whose distance along the path is not greater than
+   * the given distance, i.e. the start of the segment the distance falls on.
+   *
+   * @param distance
+   *          the distance along the path in kilometres
+   * @return the index of the point, 0 for distances before the start and the
+   *         last index for distances beyond the end, or -1 if the path is
+   *         empty
+   * @since 1.1
+   */
+  public int indexAtDistance(double distance) {
+    if (count == 0) {
+      return -1;
+    }
+    int low = 0;
+    int high = count - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (cumulative[mid] <= distance) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+
+  /**
+   * Running length of a track for callers that only need the total and not
+   * the distance at every point, so that nothing is kept per point. The half
+   * angle terms of the last point are kept for the next segment; this is
+   * also what {@link PathLength} appends with.
+   *
+   * @since 1.1
+   */
+  public static final class Total {
+
+    /**
+     * Length in kilometres
+     */
+    private double total;
+
+    /**
+     * Whether there is a last point
+     */
+    private boolean started;
+
+    /**
+     * Half angle terms of the last point
+     */
+    private double lastSinHalfLat, lastCosHalfLat, lastSinHalfLng,
+        lastCosHalfLng, lastCosLat;
+
+
+    /**
+     * Append a point and add the segment from the last point to the total.
+     *
+     * @param lat
+     *          the latitude in degrees
+     * @param lng
+     *          the longitude in degrees
+     * @return the length including the new point in kilometres
+     * @since 1.1
+     */
+    public double add(double lat, double lng) {
+      double halfLat = Math.toRadians(lat) / 2.0;
+      double halfLng = Math.toRadians(lng) / 2.0;
+      double sinHalfLat = Math.sin(halfLat);
+      double cosHalfLat = Math.cos(halfLat);
+      double sinHalfLng = Math.sin(halfLng);
+      double cosHalfLng = Math.cos(halfLng);
+      double cosLat = 1.0 - 2.0 * sinHalfLat * sinHalfLat;
+
+      if (started) {
+        total +=
+            haversine(lastSinHalfLat, lastCosHalfLat, lastSinHalfLng,
+                lastCosHalfLng, lastCosLat, sinHalfLat, cosHalfLat,
+                sinHalfLng, cosHalfLng, cosLat);
+      }
+      started = true;
+
+      lastSinHalfLat = sinHalfLat;
+      lastCosHalfLat = cosHalfLat;
+      lastSinHalfLng = sinHalfLng;
+      lastCosHalfLng = cosHalfLng;
+      lastCosLat = cosLat;
+      return total;
+    }
+
+
+    /**
+     * Remove all points.
+     *
+     * @since 1.1
+     */
+    public void clear() {
+      total = 0.0;
+      started = false;
+    }
+
+
+    /**
+     * Return the length of the points added so far.
+     *
+     * @return the length in kilometres
+     * @since 1.1
+     */
+    public double get() {
+      return total;
+    }
+  }
+}
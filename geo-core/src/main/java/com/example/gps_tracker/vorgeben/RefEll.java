@@ -0,0 +1,163 @@
+package com.example.gps_tracker.vorgeben;
+
+/**
+ * Class to represent a reference ellipsoid. Also provides a number of
+ * pre-determined reference ellipsoids as constants.
+ * 
+ * (c) 2006 Jonathan Stott
+ * 
+ * Created on 11-Feb-2006
+ * 
+ * @author Jonathan Stott
+ * @version 1.0
+ * @since 1.0
+ */
+public class RefEll {
+
+  /**
+   * Airy 1830 Reference Ellipsoid
+   */
+  public static final RefEll AIRY_1830 = new RefEll(6377563.396, 6356256.909);
+
+  /**
+   * WGS84 Reference Ellipsoid
+   */
+  public static final RefEll WGS84     = new RefEll(6378137.000, 6356752.3141);
+
+  /**
+   * Ordnance Survey National Grid projection on the Airy 1830 ellipsoid
+   */
+  public static final TransverseMercator OSGB_GRID =
+      AIRY_1830.getTransverseMercator(0.9996012717, 400000.0, -100000.0, 49.0,
+          -2.0);
+
+  /**
+   * Scale factor on the central meridian of every UTM zone
+   */
+  private static final double UTM_F0 = 0.9996;
+
+  /**
+   * Semi-major axis
+   */
+  private double             maj;
+
+  /**
+   * Semi-minor axis
+   */
+  private double             min;
+
+  /**
+   * Eccentricity
+   */
+  private double             ecc;
+
+  /**
+   * UTM projections for longitude zones 1 to 60, created on first use
+   */
+  private final TransverseMercator[] utmZones = new TransverseMercator[60];
+
+
+  /**
+   * Create a new reference ellipsoid
+   * 
+   * @param maj
+   *          semi-major axis
+   * @param min
+   *          semi-minor axis
+   * @since 1.0
+   */
+  public RefEll(double maj, double min) {
+    this.maj = maj;
+    this.min = min;
+    this.ecc = ((maj * maj) - (min * min)) / (maj * maj);
+  }
+
+
+  /**
+   * Return the semi-major axis.
+   * 
+   * @return the semi-major axis
+   * @since 1.0
+   */
+  public double getMaj() {
+    return maj;
+  }
+
+
+  /**
+   * Return the semi-minor axis
+   * 
+   * @return the semi-minor axis
+   * @since 1.0
+   */
+  public double getMin() {
+    return min;
+  }
+
+
+  /**
+   * Return the eccentricity.
+   * 
+   * @return the eccentricity
+   * @since 1.0
+   */
+  public double getEcc() {
+    return ecc;
+  }
+
+
+  /**
+   * Create the transverse Mercator projection parameters for this ellipsoid
+   * and the given origin.
+   * 
+   * @param scale
+   *          the scale factor on the central meridian
+   * @param falseEasting
+   *          the false easting in metres
+   * @param falseNorthing
+   *          the false northing in metres
+   * @param latitudeOrigin
+   *          the latitude of the true origin in degrees
+   * @param longitudeOrigin
+   *          the longitude of the true origin in degrees
+   * @return the projection parameters
+   * @since 1.1
+   */
+  public TransverseMercator getTransverseMercator(double scale,
+      double falseEasting, double falseNorthing, double latitudeOrigin,
+      double longitudeOrigin) {
+    return new TransverseMercator(this, scale, falseEasting, falseNorthing,
+        latitudeOrigin, longitudeOrigin);
+  }
+
+
+  /**
+   * Return the shared projection parameters of the given UTM longitude zone
+   * on this ellipsoid. The false northing of the southern hemisphere is not
+   * included and has to be applied by the caller.
+   * 
+   * @param lngZone
+   *          the UTM longitude zone number (1 to 60)
+   * @return the projection parameters of the zone
+   * @throws IllegalArgumentException
+   *           if lngZone is not a valid UTM longitude zone
+   * @since 1.1
+   */
+  public TransverseMercator getUTMZone(int lngZone)
+      throws IllegalArgumentException {
+    if (lngZone < 1 || lngZone > 60) {
+      throw new IllegalArgumentException("Invalid UTM longitude zone: "
+          + lngZone);
+    }
+    TransverseMercator zone = utmZones[lngZone - 1];
+    if (zone == null) {
+      // Instances are immutable, so a racing thread at worst builds an equal
+      // copy
+      zone =
+          getTransverseMercator(UTM_F0, 500000.0, 0.0, 0.0,
+              (lngZone - 1) * 6 - 180 + 3);
+      utmZones[lngZone - 1] = zone;
+    }
+    return zone;
+  }
+}
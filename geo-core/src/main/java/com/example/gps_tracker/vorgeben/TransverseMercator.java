@@ -0,0 +1,272 @@
+package com.example.gps_tracker.vorgeben;
+
+/**
+ * Immutable set of transverse Mercator projection parameters for one
+ * reference ellipsoid and one projection origin (e.g. a single UTM longitude
+ * zone or the OSGB national grid). All constants that only depend on the
+ * ellipsoid or the origin are worked out once when the object is created, so
+ * that the forward and inverse conversions in {@link LatLng}, {@link UTMRef}
+ * and {@link OSRef} only have to do the work that depends on the point being
+ * converted.
+ *
+ * Instances are obtained from {@link RefEll#getUTMZone(int)} and
+ * {@link RefEll#OSGB_GRID}.
+ *
+ * @since 1.1
+ */
+public final class TransverseMercator {
+
+  /**
+   * Reference ellipsoid
+   */
+  private final RefEll ellipsoid;
+
+  /**
+   * Scale factor on the central meridian
+   */
+  private final double scale;
+
+  /**
+   * False easting in metres
+   */
+  private final double falseEasting;
+
+  /**
+   * False northing in metres
+   */
+  private final double falseNorthing;
+
+  /**
+   * Latitude of the true origin in radians
+   */
+  private final double latitudeOrigin;
+
+  /**
+   * Longitude of the true origin (central meridian) in degrees
+   */
+  private final double longitudeOriginDegrees;
+
+  /**
+   * Longitude of the true origin (central meridian) in radians
+   */
+  private final double longitudeOrigin;
+
+  /**
+   * Second eccentricity squared, e'^2 = e^2 / (1 - e^2)
+   */
+  private final double ePrimeSquared;
+
+  /**
+   * Coefficients of the meridian arc series measured from the equator
+   */
+  private final double arc0, arc2, arc4, arc6;
+
+  /**
+   * Coefficients of the footpoint latitude series (inverse of the above)
+   */
+  private final double foot2, foot4, foot6;
+
+  /**
+   * Coefficients of the meridian arc series measured from the latitude of
+   * the true origin, scaled by b * F0
+   */
+  private final double originArc0, originArc1, originArc2, originArc3;
+
+
+  /**
+   * Create a new set of transverse Mercator parameters.
+   *
+   * @param ellipsoid
+   *          the reference ellipsoid
+   * @param scale
+   *          the scale factor on the central meridian
+   * @param falseEasting
+   *          the false easting in metres
+   * @param falseNorthing
+   *          the false northing in metres
+   * @param latitudeOrigin
+   *          the latitude of the true origin in degrees
+   * @param longitudeOrigin
+   *          the longitude of the true origin in degrees
+   * @since 1.1
+   */
+  TransverseMercator(RefEll ellipsoid, double scale, double falseEasting,
+      double falseNorthing, double latitudeOrigin, double longitudeOrigin) {
+    this.ellipsoid = ellipsoid;
+    this.scale = scale;
+    this.falseEasting = falseEasting;
+    this.falseNorthing = falseNorthing;
+    this.latitudeOrigin = Math.toRadians(latitudeOrigin);
+    this.longitudeOriginDegrees = longitudeOrigin;
+    this.longitudeOrigin = longitudeOrigin * (Math.PI / 180.0);
+
+    double a = ellipsoid.getMaj();
+    double b = ellipsoid.getMin();
+    double eSquared = ellipsoid.getEcc();
+    this.ePrimeSquared = eSquared / (1.0 - eSquared);
+
+    double e4 = eSquared * eSquared;
+    double e6 = e4 * eSquared;
+    this.arc0 = 1 - eSquared / 4 - 3 * e4 / 64 - 5 * e6 / 256;
+    this.arc2 = 3 * eSquared / 8 + 3 * e4 / 32 + 45 * e6 / 1024;
+    this.arc4 = 15 * e4 / 256 + 45 * e6 / 1024;
+    this.arc6 = 35 * e6 / 3072;
+
+    double e1 = (1 - Math.sqrt(1 - eSquared)) / (1 + Math.sqrt(1 - eSquared));
+    double e1Squared = e1 * e1;
+    this.foot2 = 3.0 * e1 / 2.0 - 27.0 * e1Squared * e1 / 32.0;
+    this.foot4 = 21.0 * e1Squared / 16.0 - 55.0 * e1Squared * e1Squared / 32.0;
+    this.foot6 = 151.0 * e1Squared * e1 / 96.0;
+
+    double n = (a - b) / (a + b);
+    double bF0 = b * scale;
+    this.originArc0 = bF0 * (1 + n + ((5.0 / 4.0) * n * n) + ((5.0 / 4.0) * n * n * n));
+    this.originArc1 = bF0 * ((3 * n) + (3 * n * n) + ((21.0 / 8.0) * n * n * n));
+    this.originArc2 = bF0 * (((15.0 / 8.0) * n * n) + ((15.0 / 8.0) * n * n * n));
+    this.originArc3 = bF0 * ((35.0 / 24.0) * n * n * n);
+  }
+
+
+  /**
+   * Calculate the length of the meridian arc from the equator to the given
+   * latitude (unscaled).
+   *
+   * @param phi
+   *          the latitude in radians
+   * @return the meridian arc length in metres
+   * @since 1.1
+   */
+  public double meridianArc(double phi) {
+    return ellipsoid.getMaj()
+        * (arc0 * phi - arc2 * Math.sin(2 * phi) + arc4 * Math.sin(4 * phi)
+            - arc6 * Math.sin(6 * phi));
+  }
+
+
+  /**
+   * Calculate the footpoint latitude for the given (unscaled) meridian arc
+   * length measured from the equator. This is the inverse of
+   * {@link #meridianArc(double)}.
+   *
+   * @param m
+   *          the meridian arc length in metres
+   * @return the footpoint latitude in radians
+   * @since 1.1
+   */
+  public double footpointLatitude(double m) {
+    double mu = m / (ellipsoid.getMaj() * arc0);
+    // sin(4mu) and sin(6mu) from the double and triple angle formulae
+    double sin2Mu = Math.sin(2.0 * mu);
+    double cos2Mu = Math.cos(2.0 * mu);
+    double sin4Mu = 2.0 * sin2Mu * cos2Mu;
+    double sin6Mu = sin2Mu * (3.0 - 4.0 * sin2Mu * sin2Mu);
+    return mu + foot2 * sin2Mu + foot4 * sin4Mu + foot6 * sin6Mu;
+  }
+
+
+  /**
+   * Calculate the scaled length of the meridian arc from the latitude of the
+   * true origin to the given latitude.
+   *
+   * @param phi
+   *          the latitude in radians
+   * @return the scaled meridian arc length in metres
+   * @since 1.1
+   */
+  public double originMeridianArc(double phi) {
+    double dPhi = phi - latitudeOrigin;
+    double sPhi = phi + latitudeOrigin;
+    return (originArc0 * dPhi)
+        - (originArc1 * Math.sin(dPhi) * Math.cos(sPhi))
+        + (originArc2 * Math.sin(2.0 * dPhi) * Math.cos(2.0 * sPhi))
+        - (originArc3 * Math.sin(3.0 * dPhi) * Math.cos(3.0 * sPhi));
+  }
+
+
+  /**
+   * Return the reference ellipsoid.
+   *
+   * @return the reference ellipsoid
+   * @since 1.1
+   */
+  public RefEll getEllipsoid() {
+    return ellipsoid;
+  }
+
+
+  /**
+   * Return the scale factor on the central meridian.
+   *
+   * @return the scale factor on the central meridian
+   * @since 1.1
+   */
+  public double getScale() {
+    return scale;
+  }
+
+
+  /**
+   * Return the false easting.
+   *
+   * @return the false easting in metres
+   * @since 1.1
+   */
+  public double getFalseEasting() {
+    return falseEasting;
+  }
+
+
+  /**
+   * Return the false northing.
+   *
+   * @return the false northing in metres
+   * @since 1.1
+   */
+  public double getFalseNorthing() {
+    return falseNorthing;
+  }
+
+
+  /**
+   * Return the latitude of the true origin.
+   *
+   * @return the latitude of the true origin in radians
+   * @since 1.1
+   */
+  public double getLatitudeOrigin() {
+    return latitudeOrigin;
+  }
+
+
+  /**
+   * Return the longitude of the true origin.
+   *
+   * @return the longitude of the true origin in radians
+   * @since 1.1
+   */
+  public double getLongitudeOrigin() {
+    return longitudeOrigin;
+  }
+
+
+  /**
+   * Return the longitude of the true origin.
+   *
+   * @return the longitude of the true origin in degrees
+   * @since 1.1
+   */
+  public double getLongitudeOriginDegrees() {
+    return longitudeOriginDegrees;
+  }
+
+
+  /**
+   * Return the second eccentricity squared.
+   *
+   * @return the second eccentricity squared
+   * @since 1.1
+   */
+  public double getEPrimeSquared() {
+    return ePrimeSquared;
+  }
+}
@@ -62,68 +62,99 @@ public class UTMRef {
    * @since 1.0
    */
   public LatLng toLatLng() {
-    double UTM_F0 = 0.9996;
+    double[] latLng = new double[2];
+    unproject(easting, northing, latZone, lngZone, latLng, 0, latLng, 1);
+    return new LatLng(latLng[0], latLng[1]);
+  }
+
+
+  /**
+   * Convert a whole series of UTM references to latitudes and longitudes
+   * without creating any intermediate objects. The results are written into
+   * the caller-supplied arrays at the same indices as the input references.
+   * 
+   * @param eastings
+   *          the UTM eastings
+   * @param northings
+   *          the UTM northings
+   * @param latZones
+   *          the latitude zone characters
+   * @param lngZones
+   *          the longitude zone numbers
+   * @param offset
+   *          the index of the first reference to convert
+   * @param count
+   *          the number of references to convert
+   * @param lat
+   *          receives the latitudes in degrees
+   * @param lng
+   *          receives the longitudes in degrees
+   * @since 1.1
+   */
+  public static void toLatLng(double[] eastings, double[] northings,
+      char[] latZones, int[] lngZones, int offset, int count, double[] lat,
+      double[] lng) {
+    for (int i = offset, end = offset + count; i < end; i++) {
+      unproject(eastings[i], northings[i], latZones[i], lngZones[i], lat, i,
+          lng, i);
+    }
+  }
+
+
+  /**
+   * Convert a single UTM reference to latitude and longitude and store the
+   * results in the given arrays.
+   */
+  private static void unproject(double easting, double northing, char latZone,
+      int lngZone, double[] lat, int latIndex, double[] lng, int lngIndex) {
+    TransverseMercator zone = RefEll.WGS84.getUTMZone(lngZone);
+    double UTM_F0 = zone.getScale();
     double a = RefEll.WGS84.getMaj();
     double eSquared = RefEll.WGS84.getEcc();
-    double ePrimeSquared = eSquared / (1.0 - eSquared);
-    double e1 = (1 - Math.sqrt(1 - eSquared)) / (1 + Math.sqrt(1 - eSquared));
-    double x = easting - 500000.0;
-    ;
+    double ePrimeSquared = zone.getEPrimeSquared();
+    double x = easting - zone.getFalseEasting();
     double y = northing;
-    int zoneNumber = lngZone;
-    char zoneLetter = latZone;
-
-    double longitudeOrigin = (zoneNumber - 1.0) * 6.0 - 180.0 + 3.0;
 
     // Correct y for southern hemisphere
-    if ((zoneLetter - 'N') < 0) {
+    if ((latZone - 'N') < 0) {
       y -= 10000000.0;
     }
 
-    double m = y / UTM_F0;
-    double mu =
-        m
-            / (a * (1.0 - eSquared / 4.0 - 3.0 * eSquared * eSquared / 64.0 - 5.0 * Math
-                .pow(eSquared, 3.0) / 256.0));
-
-    double phi1Rad =
-        mu + (3.0 * e1 / 2.0 - 27.0 * Math.pow(e1, 3.0) / 32.0)
-            * Math.sin(2.0 * mu)
-            + (21.0 * e1 * e1 / 16.0 - 55.0 * Math.pow(e1, 4.0) / 32.0)
-            * Math.sin(4.0 * mu) + (151.0 * Math.pow(e1, 3.0) / 96.0)
-            * Math.sin(6.0 * mu);
-
-    double n =
-        a / Math.sqrt(1.0 - eSquared * Math.sin(phi1Rad) * Math.sin(phi1Rad));
-    double t = Math.tan(phi1Rad) * Math.tan(phi1Rad);
-    double c = ePrimeSquared * Math.cos(phi1Rad) * Math.cos(phi1Rad);
-    double r =
-        a
-            * (1.0 - eSquared)
-            / Math.pow(1.0 - eSquared * Math.sin(phi1Rad) * Math.sin(phi1Rad),
-                1.5);
+    double phi1Rad = zone.footpointLatitude(y / UTM_F0);
+
+    double sinPhi1 = Math.sin(phi1Rad);
+    double cosPhi1 = Math.cos(phi1Rad);
+    double tanPhi1 = sinPhi1 / cosPhi1;
+    double w = 1.0 - eSquared * sinPhi1 * sinPhi1;
+    double n = a / Math.sqrt(w);
+    double t = tanPhi1 * tanPhi1;
+    double c = ePrimeSquared * cosPhi1 * cosPhi1;
+    // n * tan(phi1) / r, with r = a * (1 - e^2) / w^1.5
+    double nTanOverR = tanPhi1 * w / (1.0 - eSquared);
     double d = x / (n * UTM_F0);
+    double dSquared = d * d;
 
     double latitude =
-        (phi1Rad - (n * Math.tan(phi1Rad) / r)
-            * (d
-                * d
-                / 2.0
-                - (5.0 + (3.0 * t) + (10.0 * c) - (4.0 * c * c) - (9.0 * ePrimeSquared))
-                * Math.pow(d, 4.0) / 24.0 + (61.0 + (90.0 * t) + (298.0 * c)
-                + (45.0 * t * t) - (252.0 * ePrimeSquared) - (3.0 * c * c))
-                * Math.pow(d, 6.0) / 720.0))
-            * (180.0 / Math.PI);
+        phi1Rad
+            - nTanOverR
+            * dSquared
+            * (0.5 - dSquared
+                * ((5.0 + (3.0 * t) + (10.0 * c) - (4.0 * c * c) - (9.0 * ePrimeSquared))
+                    / 24.0 - dSquared
+                    * (61.0 + (90.0 * t) + (298.0 * c) + (45.0 * t * t)
+                        - (252.0 * ePrimeSquared) - (3.0 * c * c)) / 720.0));
 
     double longitude =
-        longitudeOrigin
-            + ((d - (1.0 + 2.0 * t + c) * Math.pow(d, 3.0) / 6.0 + (5.0
-                - (2.0 * c) + (28.0 * t) - (3.0 * c * c)
-                + (8.0 * ePrimeSquared) + (24.0 * t * t))
-                * Math.pow(d, 5.0) / 120.0) / Math.cos(phi1Rad))
-            * (180.0 / Math.PI);
-
-    return new LatLng(latitude, longitude);
+        zone.getLongitudeOrigin()
+            + d
+            * (1.0 - dSquared
+                * ((1.0 + 2.0 * t + c) / 6.0 - dSquared
+                    * (5.0 - (2.0 * c) + (28.0 * t) - (3.0 * c * c)
+                        + (8.0 * ePrimeSquared) + (24.0 * t * t)) / 120.0))
+            / cosPhi1;
+
+    lat[latIndex] = latitude * (180.0 / Math.PI);
+    lng[lngIndex] = longitude * (180.0 / Math.PI);
   }
 
 
@@ -0,0 +1,352 @@
+package com.example.gps_tracker.track;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kxml2.io.KXmlParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TrackExportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static TrackBuffer sampleTrack() {
+        TrackBuffer track = new TrackBuffer();
+        track.add(1_700_000_000_000L, 52.2053, 0.1218, 20.0);
+        track.add(1_700_000_002_000L, -33.8688197, 151.2092955, -1.25);
+        return track;
+    }
+
+    @Test
+    public void gpx_document() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, GpxWriter.write(sampleTrack(), out));
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\" ?>\n"
+                + "<gpx version=\"1.1\" creator=\"GPS-Tracker\">\n"
+                + "  <trk>\n"
+                + "    <name>Track</name>\n"
+                + "    <trkseg>\n"
+                + "      <trkpt lat=\"52.205300\" lon=\"0.121800\">\n"
+                + "        <ele>20.00</ele>\n"
+                + "        <time>2023-11-14T22:13:20Z</time>\n"
+                + "      </trkpt>\n"
+                + "      <trkpt lat=\"-33.868820\" lon=\"151.209295\">\n"
+                + "        <ele>-1.25</ele>\n"
+                + "        <time>2023-11-14T22:13:22Z</time>\n"
+                + "      </trkpt>\n"
+                + "    </trkseg>\n"
+                + "  </trk>\n"
+                + "</gpx>\n", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void gpx_readsWhatIsWritten() throws IOException {
+        TrackBuffer track = sampleTrack();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GpxWriter.write(track, out);
+
+        TrackBuffer read = new TrackBuffer();
+        assertEquals(2, GpxReader.read(new KXmlParser(), new ByteArrayInputStream(out.toByteArray()), read));
+        for (int i = 0; i < track.size(); i++) {
+            assertEquals(track.time(i), read.time(i));
+            assertEquals(track.lat(i), read.lat(i), 1e-6);
+            assertEquals(track.lng(i), read.lng(i), 1e-6);
+            assertEquals(track.altitude(i), read.altitude(i), 0.01);
+        }
+    }
+
+    @Test
+    public void gpx_readsOnlyTrackPoints() throws IOException {
+        String document = "<?xml version='1.0' encoding='UTF-8'?>\r\n"
+                + "<g:gpx xmlns:g='http://www.topografix.com/GPX/1/1' xmlns:x='urn:example'>\r\n"
+                + "  <g:wpt lat='1' lon='1'><g:time>2000-01-01T00:00:00Z</g:time></g:wpt>\r\n"
+                + "  <g:trk><g:name>A &amp; B</g:name><g:trkseg>\r\n"
+                + "    <g:trkpt lon='13.4' lat='52.5'>\r\n"
+                + "      <g:ele> 34.5 </g:ele><!-- comment -->\r\n"
+                + "      <g:time>2024-05-01T10:00:00.250+02:00</g:time>\r\n"
+                + "      <g:extensions><x:time>garbage</x:time><g:ele>garbage</g:ele></g:extensions>\r\n"
+                + "    </g:trkpt>\r\n"
+                + "    <g:trkpt lat='-52.5' lon='-13.4'/>\r\n"
+                + "    <x:trkpt lat='0' lon='0'/>\r\n"
+                + "  </g:trkseg></g:trk>\r\n"
+                + "</g:gpx>\r\n";
+        TrackBuffer track = new TrackBuffer();
+        assertEquals(2, GpxReader.read(new KXmlParser(),
+                new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)), track));
+
+        long time = Instant.parse("2024-05-01T08:00:00.250Z").toEpochMilli();
+        assertEquals(time, track.time(0));
+        assertEquals(52.5, track.lat(0), 0);
+        assertEquals(13.4, track.lng(0), 0);
+        assertEquals(34.5, track.altitude(0), 0);
+        // No time or elevation
+        assertEquals(time, track.time(1));
+        assertEquals(-52.5, track.lat(1), 0);
+        assertEquals(0, track.altitude(1), 0);
+
+        String[] invalid = {
+                "<gpx><trk><trkseg><trkpt lat='91' lon='0'/></trkseg></trk></gpx>",
+                "<gpx><trk><trkseg><trkpt lat='1'/></trkseg></trk></gpx>",
+                "<gpx><trk><trkseg><trkpt lat='1' lon='2'><time>yesterday</time></trkpt></trkseg></trk></gpx>",
+                "<gpx><trk><trkseg><trkpt lat='1' lon='2'>",
+        };
+        for (String text : invalid) {
+            try {
+                GpxReader.read(new KXmlParser(), new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                        new TrackBuffer());
+                fail("Read " + text);
+            } catch (IOException expected) {
+                // Rejected
+            }
+        }
+    }
+
+    @Test
+    public void gpx_exportCacheEncodesOnlyNewPoints() throws IOException {
+        GpxExportCache cache = new GpxExportCache(new File(folder.getRoot(), "export.gpx"));
+        TrackBuffer track = sampleTrack();
+        assertCachedExport(cache, 1, track, 0);
+        track.add(1_700_000_004_000L, -33.86, 151.21, 3.5);
+        assertCachedExport(cache, 1, track, 2);
+        assertCachedExport(cache, 1, track, 3);
+
+        // Another session, or a track that no longer starts with the cached points
+        assertCachedExport(cache, 2, track, 0);
+        track.clear();
+        track.add(1_700_000_000_000L, 52.2053, 0.1218, 20.0);
+        track.add(1_700_000_009_000L, 52.2054, 0.1219, 21.0);
+        track.add(1_700_000_010_000L, 52.2055, 0.1220, 22.0);
+        assertCachedExport(cache, 2, track, 0);
+        track.clear();
+        assertCachedExport(cache, 2, track, 0);
+    }
+
+    private static void assertCachedExport(GpxExportCache cache, long key, TrackBuffer track, int reused)
+            throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        GpxWriter.write(track, expected);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(track.size(), cache.write(key, track, out));
+        assertEquals(reused, cache.getReusedCount());
+        assertEquals(expected.toString("UTF-8"), out.toString("UTF-8"));
+    }
+
+    @Test
+    public void export_writesAllFormatsInOnePass() throws IOException {
+        TrackBuffer track = sampleTrack();
+        ByteArrayOutputStream gpx = new ByteArrayOutputStream();
+        ByteArrayOutputStream geoJson = new ByteArrayOutputStream();
+        ByteArrayOutputStream kml = new ByteArrayOutputStream();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertEquals(2, TrackExport.write(track, "Track", new GpxWriter(gpx), new GeoJsonWriter(geoJson),
+                new KmlWriter(kml), new CsvWriter(csv)));
+
+        ByteArrayOutputStream expectedGpx = new ByteArrayOutputStream();
+        GpxWriter.write(track, expectedGpx);
+        assertEquals(expectedGpx.toString("UTF-8"), gpx.toString("UTF-8"));
+        StringBuilder expectedCsv = new StringBuilder();
+        TrackCsv.write(track, expectedCsv);
+        assertEquals(expectedCsv.toString(), csv.toString("UTF-8"));
+        assertEquals("{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",\n"
+                + "\"geometry\":{\"type\":\"LineString\",\"coordinates\":[\n"
+                + "[0.121800,52.205300,20.00],\n"
+                + "[151.209295,-33.868820,-1.25]]},\n"
+                + "\"properties\":{\"name\":\"Track\",\"coordTimes\":[\n"
+                + "\"2023-11-14T22:13:20Z\",\n"
+                + "\"2023-11-14T22:13:22Z\"]}}]}\n", geoJson.toString("UTF-8"));
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<kml xmlns=\"http://www.opengis.net/kml/2.2\">\n"
+                + "  <Document>\n"
+                + "    <Placemark>\n"
+                + "      <name>Track</name>\n"
+                + "      <LineString>\n"
+                + "        <altitudeMode>absolute</altitudeMode>\n"
+                + "        <coordinates>\n"
+                + "0.121800,52.205300,20.00\n"
+                + "151.209295,-33.868820,-1.25\n"
+                + "        </coordinates>\n"
+                + "      </LineString>\n"
+                + "    </Placemark>\n"
+                + "  </Document>\n"
+                + "</kml>\n", kml.toString("UTF-8"));
+
+        ByteArrayOutputStream named = new ByteArrayOutputStream();
+        TrackExport.write(new TrackBuffer(), "\"Run\"\n", new GeoJsonWriter(named));
+        assertTrue(named.toString("UTF-8").contains("\"name\":\"\\\"Run\\\"\\u000a\",\"coordTimes\":[]"));
+    }
+
+    @Test
+    public void polyline_roundTrip() throws IOException {
+        TrackBuffer track = sampleTrack();
+        Random random = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            track.add(track.time(track.size() - 1) + 1000 + (i % 50 == 0 ? random.nextInt(60_000) : 0),
+                    track.lat(track.size() - 1) + (random.nextDouble() - 0.5) * 1e-4,
+                    track.lng(track.size() - 1) + (random.nextDouble() - 0.5) * 1e-4,
+                    track.altitude(track.size() - 1) + (random.nextDouble() - 0.5));
+        }
+
+        for (int decimals : new int[]{TrackPolyline.DEFAULT_DECIMALS, TrackPolyline.MAX_DECIMALS}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            PolylineWriter writer = new PolylineWriter(out, TrackPolyline.ALL_CHANNELS, decimals);
+            for (int i = 0; i < track.size(); i++) {
+                writer.add(track.time(i), track.lat(i), track.lng(i), track.altitude(i));
+            }
+            writer.flush();
+            out.write('\n');
+
+            TrackBuffer read = new TrackBuffer();
+            PolylineReader reader = new PolylineReader(new ByteArrayInputStream(out.toByteArray()));
+            assertEquals(track.size(), reader.read(read));
+            assertEquals(decimals, reader.getDecimals());
+            double tolerance = 0.5 / Math.pow(10, decimals) + 1e-12;
+            for (int i = 0; i < track.size(); i++) {
+                assertEquals(track.time(i), read.time(i));
+                assertEquals(track.lat(i), read.lat(i), tolerance);
+                assertEquals(track.lng(i), read.lng(i), tolerance);
+                assertEquals(track.altitude(i), read.altitude(i), 0.005 + 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void polyline_withoutChannelsIsStandardPolyline() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PolylineWriter writer = new PolylineWriter(out, 0, 5);
+        writer.add(1, 38.5, -120.2, 10);
+        writer.add(2, 40.7, -120.95, 20);
+        writer.add(3, 43.252, -126.453, 30);
+        writer.flush();
+        assertEquals("P105_p~iF~ps|U_ulLnnqC_mqNvxq`@", out.toString("US-ASCII"));
+
+        TrackBuffer read = new TrackBuffer();
+        assertEquals(3, new PolylineReader(new ByteArrayInputStream(out.toByteArray())).read(read));
+        assertEquals(0, read.time(2));
+        assertEquals(-126.453, read.lng(2), 1e-9);
+        assertEquals(0, read.altitude(2), 0);
+
+        String[] invalid = {"P1", "GPST", "P145", "P105_p~iF", "P105_p~iF~ps|U_ul Ln"};
+        for (String text : invalid) {
+            try {
+                new PolylineReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)))
+                        .read(new TrackBuffer());
+                fail("Read " + text);
+            } catch (IOException expected) {
+                // Rejected
+            }
+        }
+    }
+
+    @Test
+    public void utf8Output_encodesAcrossBufferBoundaries() throws IOException {
+        String text = "Weg über \"Höhe\" & 🏔 – ok";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8Output utf8 = new Utf8Output(out, 5);
+        utf8.append(text).append('!');
+        utf8.flush();
+        byte[] expected = (text + "!").getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, out.toByteArray());
+        assertEquals(expected.length, utf8.size());
+
+        out.reset();
+        GpxWriter writer = new GpxWriter(out);
+        writer.begin(text);
+        writer.end();
+        assertTrue(out.toString("UTF-8").contains(
+                "<name>Weg über &quot;Höhe&quot; &amp; 🏔 – ok</name>"));
+    }
+
+    @Test
+    public void isoTimestamp_matchesJavaTime() {
+        Random random = new Random(7);
+        char[] chars = new char[IsoTimestamp.LENGTH_MILLIS];
+        byte[] bytes = new byte[IsoTimestamp.LENGTH_MILLIS];
+        long[] fixed = {0L, -1L, 951_782_400_000L, 4_107_542_399_999L, -62_167_219_200_000L, 253_402_300_799_999L};
+        for (int i = 0; i < 10_000; i++) {
+            long millis = i < fixed.length ? fixed[i]
+                    : (long) ((random.nextDouble() - 0.5) * 2 * 253_402_300_799_999L);
+            if (millis < -62_167_219_200_000L) {
+                // Instant prints negative years with a sign
+                continue;
+            }
+            String expected = Instant.ofEpochMilli(millis).toString();
+            if (expected.length() == IsoTimestamp.LENGTH) {
+                // Instant omits zero milliseconds
+                expected = expected.substring(0, 19) + ".000Z";
+            }
+            int length = IsoTimestamp.format(millis, true, chars, 0);
+            assertEquals(expected, new String(chars, 0, length));
+            assertEquals(length, IsoTimestamp.format(millis, true, bytes, 0));
+            assertEquals(expected, new String(bytes, 0, length, StandardCharsets.US_ASCII));
+            assertEquals(millis, IsoTimestamp.parse(expected));
+
+            length = IsoTimestamp.format(millis, false, chars, 0);
+            assertEquals(IsoTimestamp.LENGTH, length);
+            assertEquals(Math.floorDiv(millis, 1000) * 1000, IsoTimestamp.parse(new String(chars, 0, length)));
+        }
+    }
+
+    @Test
+    public void isoTimestamp_parsesOffsetsAndFractions() {
+        long expected = Instant.parse("2023-11-14T22:13:20.120Z").toEpochMilli();
+        assertEquals(expected, IsoTimestamp.parse("2023-11-14T22:13:20.12Z"));
+        assertEquals(expected, IsoTimestamp.parse("2023-11-14T22:13:20.1209999Z"));
+        assertEquals(expected, IsoTimestamp.parse("2023-11-14T23:43:20.12+01:30"));
+        assertEquals(expected, IsoTimestamp.parse("2023-11-14T17:13:20.120-0500"));
+        assertEquals(expected, IsoTimestamp.parse("<time>2023-11-14T22:13:20.12Z</time>", 6, 29));
+
+        String[] invalid = {"2023-11-14 22:13:20Z", "2023-02-29T00:00:00Z", "2023-11-14T22:13:20",
+                "2023-11-14T24:00:00Z", "2023-11-14T22:13:20.Z", "2023-11-14T22:13:20+1:00", "2023-1a-14T22:13:20Z"};
+        for (String s : invalid) {
+            try {
+                IsoTimestamp.parse(s);
+                fail(s);
+            } catch (IllegalArgumentException expectedException) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void decimalFormatter_roundsExactValueHalfUp() {
+        DecimalFormatter f = new DecimalFormatter();
+        assertEquals("1.00", f.clear().append(1.005, 2).toString());
+        assertEquals("0.13", f.clear().append(0.125, 2).toString());
+        assertEquals("-0.13", f.clear().append(-0.125, 2).toString());
+        assertEquals("-0.00", f.clear().append(-0.001, 2).toString());
+        assertEquals("3", f.clear().append(2.5, 0).toString());
+        assertEquals("1700000000000,52.205300,-9223372036854775808",
+                f.clear().append(1_700_000_000_000L).append(',').append(52.2053, 6).append(',')
+                        .append(Long.MIN_VALUE).toString());
+        assertEquals("NaN", f.clear().append(Double.NaN, 6).toString());
+        assertEquals(new BigDecimal(1e300).setScale(2, RoundingMode.HALF_UP).toPlainString(),
+                f.clear().append(1e300, 2).toString());
+
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            int decimals = random.nextInt(7);
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(10));
+            if (i % 3 == 0) {
+                // Values close to a rounding boundary
+                value = Math.round(value * Math.pow(10, decimals + 1)) / Math.pow(10, decimals + 1);
+            }
+            String expected = new BigDecimal(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+            if (value < 0 && expected.matches("0\\.?0*")) {
+                expected = "-" + expected;
+            }
+            assertEquals(expected, f.clear().append(value, decimals).toString());
+        }
+    }
+}
@@ -0,0 +1,529 @@
+package com.example.gps_tracker.track;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class TrackFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] writeTrack(int points) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TrackFileWriter writer = new TrackFileWriter(out, true)) {
+            for (int i = 0; i < points; i++) {
+                // Irregular intervals and a jump across the antimeridian
+                long time = 1_700_000_000_000L + i * 2000L + (i % 7 == 0 ? 130 : 0);
+                double lng = i == points / 2 ? -179.9999999 : 179.9999999 - i * 1e-5;
+                writer.add(time, -33.8688197 + i * 1e-5, lng, i % 3 == 0 ? -12.25 : 1520.5);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Fails the next block write once {@link #fail} is set.
+     */
+    private static final class FailingOnceStream extends OutputStream {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        volatile boolean fail;
+
+        @Override
+        public void write(int b) {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fail) {
+                fail = false;
+                throw new IOException("Disk full");
+            }
+            out.write(b, off, len);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        int points = 3 * TrackFile.MAX_BLOCK_POINTS + 17;
+        byte[] file = writeTrack(points);
+
+        TrackBuffer track = new TrackBuffer();
+        TrackFileReader reader = new TrackFileReader(new ByteArrayInputStream(file));
+        assertEquals(points, reader.read(track));
+        assertFalse(reader.isTruncated());
+        assertEquals(file.length, reader.getValidLength());
+
+        for (int i = 0; i < points; i++) {
+            long time = 1_700_000_000_000L + i * 2000L + (i % 7 == 0 ? 130 : 0);
+            double lng = i == points / 2 ? -179.9999999 : 179.9999999 - i * 1e-5;
+            assertEquals(time, track.time(i));
+            assertEquals(-33.8688197 + i * 1e-5, track.lat(i), 1e-9);
+            assertEquals(lng, track.lng(i), 1e-9);
+            assertEquals(i % 3 == 0 ? -12.25 : 1520.5, track.altitude(i), 0.0);
+        }
+    }
+
+    @Test
+    public void stopsAtTornOrCorruptBlock() throws IOException {
+        byte[] file = writeTrack(TrackFile.MAX_BLOCK_POINTS + 10);
+
+        byte[] torn = Arrays.copyOf(file, file.length - 3);
+        TrackBuffer track = new TrackBuffer();
+        TrackFileReader reader = new TrackFileReader(new ByteArrayInputStream(torn));
+        assertEquals(TrackFile.MAX_BLOCK_POINTS, reader.read(track));
+        assertTrue(reader.isTruncated());
+        long firstBlockEnd = reader.getValidLength();
+        assertTrue(firstBlockEnd < file.length);
+
+        byte[] corrupt = file.clone();
+        corrupt[(int) firstBlockEnd + 5] ^= 1;
+        reader = new TrackFileReader(new ByteArrayInputStream(corrupt));
+        assertEquals(TrackFile.MAX_BLOCK_POINTS, reader.read(new TrackBuffer()));
+        assertTrue(reader.isTruncated());
+        assertEquals(firstBlockEnd, reader.getValidLength());
+    }
+
+    @Test
+    public void keepsPointsOfBlockThatFailedToWrite() throws IOException {
+        FailingOnceStream out = new FailingOnceStream();
+        TrackFileWriter writer = new TrackFileWriter(out, true);
+        out.fail = true;
+        int points = TrackFile.MAX_BLOCK_POINTS + 5;
+        int failures = 0;
+        for (int i = 0; i < points; i++) {
+            try {
+                writer.add(1_700_000_000_000L + i * 1000L, 52.2 + i * 1e-5, 0.12, 20.0);
+            } catch (UncheckedIOException e) {
+                failures++;
+            }
+        }
+        writer.close();
+        assertEquals(1, failures);
+
+        TrackBuffer track = new TrackBuffer();
+        TrackFileReader reader = new TrackFileReader(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(points, reader.read(track));
+        assertFalse(reader.isTruncated());
+        assertEquals(1_700_000_000_000L + (points - 1) * 1000L, track.time(points - 1));
+    }
+
+    @Test
+    public void mappedFileStopsAtNegativeBlockHeader() throws IOException {
+        byte[] bytes = writeTrack(10);
+        // Ten byte varints of -20 and -1
+        byte[] minusTwenty = {(byte) 0xEC, -1, -1, -1, -1, -1, -1, -1, -1, 1};
+        byte[] minusOne = {-1, -1, -1, -1, -1, -1, -1, -1, -1, 1};
+        // A length that ends the block before its header, and a count with a matching checksum
+        byte[] negativeLength = concat(new byte[]{1}, minusTwenty);
+        byte[] negativeCount = concat(minusOne, new byte[]{4, 0, 0, 0, 0});
+        CRC32 crc = new CRC32();
+        crc.update(negativeCount);
+        negativeCount = concat(negativeCount, ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+
+        for (byte[] block : new byte[][]{negativeLength, negativeCount}) {
+            File file = folder.newFile();
+            Files.write(file.toPath(), concat(concat(bytes, block), new byte[64]));
+            try (MappedTrackFile mapped = MappedTrackFile.open(file)) {
+                assertEquals(10, mapped.size());
+                assertEquals(1, mapped.blockCount());
+                assertTrue(mapped.isTruncated());
+                assertEquals(bytes.length, mapped.getValidLength());
+            }
+        }
+    }
+
+    @Test
+    public void mappedFileMatchesStreamReader() throws IOException {
+        int points = 2 * TrackFile.MAX_BLOCK_POINTS + 40;
+        byte[] bytes = writeTrack(points);
+        File file = folder.newFile(TrackFile.FILE_NAME);
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+
+        TrackBuffer expected = new TrackBuffer();
+        new TrackFileReader(new ByteArrayInputStream(bytes)).read(expected);
+
+        try (MappedTrackFile mapped = MappedTrackFile.open(file)) {
+            assertEquals(2 * TrackFile.MAX_BLOCK_POINTS, mapped.size());
+            assertEquals(2, mapped.blockCount());
+            assertTrue(mapped.isTruncated());
+
+            // Random access in both directions across block boundaries
+            for (int i = mapped.size() - 1; i >= 0; i -= 37) {
+                assertEquals(expected.time(i), mapped.time(i));
+                assertEquals(expected.lat(i), mapped.lat(i), 0.0);
+                assertEquals(expected.lng(i), mapped.lng(i), 0.0);
+                assertEquals(expected.altitude(i), mapped.altitude(i), 0.0);
+            }
+
+            TrackBuffer range = new TrackBuffer();
+            mapped.read(100, TrackFile.MAX_BLOCK_POINTS + 5, range);
+            assertEquals(TrackFile.MAX_BLOCK_POINTS - 95, range.size());
+            assertEquals(expected.time(100), range.time(0));
+            assertEquals(expected.time(TrackFile.MAX_BLOCK_POINTS + 4), range.time(range.size() - 1));
+
+            TrackBuffer all = new TrackBuffer();
+            assertEquals(mapped.size(), mapped.readAll(all));
+            assertEquals(expected.time(mapped.size() - 1), all.time(all.size() - 1));
+        }
+    }
+
+    @Test
+    public void recorderCountsFixesItCouldNotWrite() throws IOException {
+        FailingOnceStream out = new FailingOnceStream();
+        int capacity = TrackFile.MAX_BLOCK_POINTS + 5;
+        TrackRecorder recorder = new TrackRecorder(new TrackFileWriter(out, true), capacity, 3_600_000, capacity);
+        out.fail = true;
+        for (int i = 0; i < capacity; i++) {
+            assertTrue(recorder.offer(1_700_000_000_000L + i * 1000L, 52.2 + i * 1e-5, 0.12, 20.0));
+        }
+        // The block filled by the group fails, and the rest of the group is not written
+        recorder.flush();
+        try {
+            recorder.close();
+            fail("Write failure was not reported");
+        } catch (IOException expected) {
+        }
+        assertEquals(5, recorder.getDroppedCount());
+        assertEquals(0, recorder.getCommittedCount());
+
+        // The writer kept the points of the failed block and wrote them on close
+        TrackFileReader reader = new TrackFileReader(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(TrackFile.MAX_BLOCK_POINTS, reader.read(new TrackBuffer()));
+        assertFalse(reader.isTruncated());
+    }
+
+    @Test
+    public void recorderWritesAllFixesInGroups() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TrackRecorder recorder = new TrackRecorder(new TrackFileWriter(out, true), 64, 60_000, 16);
+        int points = 1000;
+        int offered = 0;
+        for (int i = 0; i < points; i++) {
+            if (recorder.offer(1_700_000_000_000L + i * 1000L, 52.2 + i * 1e-5, 0.12, 20.0)) {
+                offered++;
+            }
+        }
+        recorder.flush();
+        recorder.close();
+        assertFalse(recorder.offer(0, 0, 0, 0));
+        assertEquals(points + 1, offered + recorder.getDroppedCount());
+        assertEquals(offered, recorder.getCommittedCount());
+        // A group never holds more than the ring
+        assertTrue(recorder.getCommitCount() >= (offered + 63) / 64);
+
+        TrackBuffer track = new TrackBuffer();
+        TrackFileReader reader = new TrackFileReader(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(offered, reader.read(track));
+        assertFalse(reader.isTruncated());
+        for (int i = 1; i < track.size(); i++) {
+            assertTrue(track.time(i) > track.time(i - 1));
+        }
+    }
+
+    @Test
+    public void journalRecoversFixesAfterCrash() throws Exception {
+        File file = new File(folder.getRoot(), "1.bin");
+        File journal = TrackJournal.fileFor(file);
+        TrackBuffer recovered = new TrackBuffer();
+        TrackRecorder recorder = TrackRecorder.open(file, 0, recovered);
+        int points = TrackFile.MAX_BLOCK_POINTS + 10;
+        for (int i = 0; i < points; i++) {
+            assertTrue(recorder.offer(1_700_000_000_000L + i * 1000L, 52.2 + i * 1e-5, 0.12, 20.0));
+        }
+        recorder.flush();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (recorder.getCommittedCount() < points && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(points, recorder.getCommittedCount());
+        assertEquals(1, recorder.getCheckpointCount());
+
+        // What a crash leaves behind: one full block and the rest in the journal
+        File crashed = new File(folder.getRoot(), "crashed.bin");
+        File crashedJournal = TrackJournal.fileFor(crashed);
+        Files.copy(file.toPath(), crashed.toPath());
+        Files.copy(journal.toPath(), crashedJournal.toPath());
+        recorder.close();
+        assertEquals(0, recorder.getDroppedCount());
+
+        long validLength;
+        try (MappedTrackFile mapped = MappedTrackFile.open(crashed)) {
+            assertEquals(TrackFile.MAX_BLOCK_POINTS, mapped.size());
+            validLength = mapped.getValidLength();
+        }
+        byte[] journalBytes = Files.readAllBytes(crashedJournal.toPath());
+        assertEquals(0, TrackJournal.replay(crashedJournal, validLength + 1, new TrackBuffer()));
+        // A torn last record is left out
+        Files.write(crashedJournal.toPath(), Arrays.copyOf(journalBytes, journalBytes.length - 3));
+        assertEquals(9, TrackJournal.replay(crashedJournal, validLength, new TrackBuffer()));
+        Files.write(crashedJournal.toPath(), journalBytes);
+
+        TrackRecorder.open(crashed, validLength, recovered).close();
+        assertEquals(10, recovered.size());
+        assertEquals(1_700_000_000_000L + TrackFile.MAX_BLOCK_POINTS * 1000L, recovered.time(0));
+
+        TrackBuffer expected = new TrackBuffer();
+        TrackBuffer track = new TrackBuffer();
+        try (MappedTrackFile mapped = MappedTrackFile.open(file)) {
+            mapped.readAll(expected);
+        }
+        try (MappedTrackFile mapped = MappedTrackFile.open(crashed)) {
+            assertFalse(mapped.isTruncated());
+            mapped.readAll(track);
+            validLength = mapped.getValidLength();
+        }
+        assertEquals(points, track.size());
+        for (int i = 0; i < points; i++) {
+            assertEquals(expected.time(i), track.time(i));
+            assertEquals(expected.lat(i), track.lat(i), 0.0);
+        }
+        // The recovered fixes are in the track file now and are not replayed again
+        assertEquals(0, TrackJournal.replay(crashedJournal, validLength, new TrackBuffer()));
+    }
+
+    @Test
+    public void damagedJournalHeaderIsStartedOver() throws IOException {
+        File file = new File(folder.getRoot(), "1.bin");
+        Files.write(file.toPath(), writeTrack(10));
+        long validLength = file.length();
+        File journal = TrackJournal.fileFor(file);
+        byte[][] damaged = {new byte[TrackJournal.HEADER_SIZE + TrackJournal.RECORD_SIZE], new byte[5],
+                "not a journal at all, just some text".getBytes(StandardCharsets.US_ASCII)};
+        for (byte[] bytes : damaged) {
+            Files.write(journal.toPath(), bytes);
+            assertEquals(0, TrackJournal.replay(journal, validLength, new TrackBuffer()));
+
+            TrackBuffer recovered = new TrackBuffer();
+            TrackRecorder recorder = TrackRecorder.open(file, validLength, recovered);
+            assertTrue(recorder.offer(1_800_000_000_000L, 52.2, 0.12, 20.0));
+            recorder.close();
+            assertNull(recorder.getLastError());
+            assertTrue(recovered.isEmpty());
+            assertEquals(TrackJournal.HEADER_SIZE, journal.length());
+
+            try (MappedTrackFile mapped = MappedTrackFile.open(file)) {
+                assertFalse(mapped.isTruncated());
+                validLength = mapped.getValidLength();
+                assertEquals(1_800_000_000_000L, mapped.time(mapped.size() - 1));
+            }
+        }
+    }
+
+    @Test
+    public void csvRoundTripAndMalformedRows() throws IOException {
+        TrackBuffer expected = new TrackBuffer();
+        new TrackFileReader(new ByteArrayInputStream(writeTrack(5000))).read(expected);
+        StringBuilder csv = new StringBuilder();
+        TrackCsv.write(expected, csv);
+        String[] lines = csv.toString().split("\n");
+
+        TrackBuffer track = new TrackBuffer();
+        assertEquals(expected.size(), TrackCsv.read(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), track, null));
+        for (int i = 0; i < track.size(); i++) {
+            String[] values = lines[i + 1].split(",");
+            assertEquals(Long.parseLong(values[0]), track.time(i));
+            assertEquals(Double.parseDouble(values[1]), track.lat(i), 0.0);
+            assertEquals(Double.parseDouble(values[2]), track.lng(i), 0.0);
+            assertEquals(Double.parseDouble(values[3]), track.altitude(i), 0.0);
+        }
+
+        String rows = "1000,52.1,0.1,20\r\n"
+                + "\n"
+                + "1001,52.1\n"
+                + "1002,5x,0.1,20\n"
+                + "1003,-1.5e-3,+.25,12345678901234567890.5,extra\n"
+                + "1004,52.1,0.1,20";
+        List<Integer> malformed = new ArrayList<>();
+        track.clear();
+        assertEquals(3, TrackCsv.read(new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8)), track,
+                (lineNumber, line, e) -> malformed.add(lineNumber)));
+        assertEquals(Arrays.asList(3, 4), malformed);
+        assertEquals(1000, track.time(0));
+        assertEquals(20.0, track.altitude(0), 0.0);
+        assertEquals(-1.5e-3, track.lat(1), 0.0);
+        assertEquals(0.25, track.lng(1), 0.0);
+        assertEquals(12345678901234567890.5, track.altitude(1), 0.0);
+        assertEquals(1004, track.time(2));
+    }
+
+    @Test
+    public void csvRowsAreFormattedOneByOneAndFoundByTime() throws IOException {
+        TrackBuffer track = new TrackBuffer();
+        new TrackFileReader(new ByteArrayInputStream(writeTrack(100))).read(track);
+        StringBuilder csv = new StringBuilder();
+        TrackCsv.write(track, csv);
+        String[] lines = csv.toString().split("\n");
+        DecimalFormatter row = new DecimalFormatter();
+        for (int i = 0; i < track.size(); i++) {
+            assertEquals(lines[i + 1], TrackCsv.formatRow(track, i, row).toString());
+        }
+
+        assertEquals(0, track.indexOfTime(Long.MIN_VALUE));
+        assertEquals(0, track.indexOfTime(track.time(0)));
+        assertEquals(50, track.indexOfTime(track.time(50)));
+        assertEquals(51, track.indexOfTime(track.time(50) + 1));
+        assertEquals(track.size(), track.indexOfTime(track.time(99) + 1));
+        assertEquals(0, new TrackBuffer().indexOfTime(0));
+    }
+
+    @Test
+    public void bufferKeepsExtentOfProjectedPoints() {
+        TrackBuffer track = new TrackBuffer();
+        assertTrue(Double.isNaN(track.minX()));
+        track.add(0, 52.2, 0.12, 0);
+        track.add(1, 52.21, 0.11, 0);
+        double[] lat = {52.19, 52.205};
+        double[] lng = {0.125, 0.115};
+        track.addAll(new long[]{2, 3}, lat, lng, new double[2], 0, 2);
+
+        double minX = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < track.size(); i++) {
+            minX = Math.min(minX, track.x(i));
+            maxY = Math.max(maxY, track.y(i));
+        }
+        assertEquals(minX, track.minX(), 0.0);
+        assertEquals(maxY, track.maxY(), 0.0);
+        assertEquals(track.x(1), track.minX(), 0.0);
+        assertEquals(track.y(2), track.minY(), 0.0);
+        assertEquals(track.x(2), track.maxX(), 0.0);
+
+        track.clear();
+        assertTrue(Double.isNaN(track.maxY()));
+        track.add(4, 10.0, 10.0, 0);
+        assertEquals(track.x(0), track.minX(), 0.0);
+        assertEquals(track.x(0), track.maxX(), 0.0);
+    }
+
+    @Test
+    public void archiveIndexSurvivesReopenAndDamage() throws IOException {
+        File directory = new File(folder.getRoot(), TrackArchive.DIRECTORY_NAME);
+        TrackArchive archive = TrackArchive.open(directory);
+        assertNull(archive.latest());
+
+        TrackArchive.Session first = archive.create();
+        Files.write(archive.trackFile(first.getId()).toPath(), writeTrack(300));
+        TrackSummary summary = new TrackSummary();
+        new TrackFileReader(new ByteArrayInputStream(writeTrack(300))).read(summary);
+        archive.update(first.getId(), summary);
+        TrackArchive.Session second = archive.create();
+        assertEquals(first.getId() + 1, second.getId());
+
+        archive = TrackArchive.open(directory);
+        assertEquals(2, archive.sessions().size());
+        TrackArchive.Session session = archive.session(first.getId());
+        assertEquals(300, session.getPointCount());
+        assertEquals(summary.getStartTime(), session.getStartTime());
+        assertEquals(summary.getEndTime(), session.getEndTime());
+        assertEquals(-33.8688197, session.getMinLat(), 1e-9);
+        assertEquals(-179.9999999, session.getMinLng(), 1e-9);
+        assertEquals(179.9999999, session.getMaxLng(), 1e-9);
+        assertEquals(summary.getDistance(), session.getDistance(), 0.0);
+        assertTrue(archive.session(second.getId()).isEmpty());
+
+        // A damaged record is rebuilt from its track file, a track file without one is added
+        File index = new File(directory, TrackArchive.INDEX_FILE_NAME);
+        byte[] bytes = Files.readAllBytes(index.toPath());
+        bytes[TrackArchive.HEADER_SIZE + 20] ^= 1;
+        Files.write(index.toPath(), bytes);
+        Files.write(archive.trackFile(7).toPath(), writeTrack(10));
+        archive = TrackArchive.open(directory);
+        assertEquals(3, archive.sessions().size());
+        assertEquals(300, archive.session(first.getId()).getPointCount());
+        assertEquals(summary.getDistance(), archive.session(first.getId()).getDistance(), 1e-9);
+        assertEquals(10, archive.latest().getPointCount());
+        assertEquals(8, archive.create().getId());
+        assertEquals(TrackArchive.HEADER_SIZE + 4 * TrackArchive.RECORD_SIZE, index.length());
+    }
+
+    @Test
+    public void deletedSessionStaysDeleted() throws IOException {
+        File directory = new File(folder.getRoot(), TrackArchive.DIRECTORY_NAME);
+        TrackArchive archive = TrackArchive.open(directory);
+        TrackArchive.Session first = archive.create();
+        TrackArchive.Session second = archive.create();
+        File trackFile = archive.trackFile(first.getId());
+        Files.write(trackFile.toPath(), writeTrack(10));
+        File journalFile = TrackJournal.fileFor(trackFile);
+        TrackJournal.create(journalFile, trackFile.length()).close();
+
+        archive.setImporting(first.getId(), true);
+        try {
+            archive.delete(first.getId());
+            fail("Session was deleted while being imported");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertTrue(trackFile.exists());
+        archive.setImporting(first.getId(), false);
+        archive.delete(first.getId());
+        assertNull(archive.session(first.getId()));
+        assertFalse(trackFile.exists());
+        assertFalse(journalFile.exists());
+
+        archive = TrackArchive.open(directory);
+        assertEquals(1, archive.sessions().size());
+        assertEquals(second.getId(), archive.latest().getId());
+    }
+
+    @Test
+    public void unreadableTrackFileIsKeptAside() throws IOException {
+        File directory = new File(folder.getRoot(), TrackArchive.DIRECTORY_NAME);
+        TrackArchive archive = TrackArchive.open(directory);
+        archive.create();
+        byte[] csv = (TrackCsv.HEADER + "\n").getBytes(StandardCharsets.UTF_8);
+        File unreadable = archive.trackFile(2);
+        Files.write(unreadable.toPath(), csv);
+
+        try {
+            TrackFileWriter.append(unreadable, 0).close();
+            fail("Unreadable track file was started over");
+        } catch (IOException expected) {
+        }
+        assertArrayEquals(csv, Files.readAllBytes(unreadable.toPath()));
+
+        archive = TrackArchive.open(directory);
+        assertEquals(1, archive.sessions().size());
+        assertFalse(unreadable.exists());
+        File damaged = new File(directory, unreadable.getName() + TrackArchive.DAMAGED_SUFFIX);
+        assertArrayEquals(csv, Files.readAllBytes(damaged.toPath()));
+
+        // A file that cannot be moved aside is not reused for a new session
+        Files.write(archive.trackFile(2).toPath(), csv);
+        assertEquals(3, archive.create().getId());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        byte[] csv = (TrackCsv.HEADER + "\n").getBytes();
+        new TrackFileReader(new ByteArrayInputStream(csv)).read(new TrackBuffer());
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.gps_tracker.vorgeben;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Regression checks for the coordinate conversions, using the sample values
+ * printed by {@link com.example.gps_tracker.vorgeben.Test}.
+ */
+public class ConversionTest {
+
+    private static final double DEGREE_DELTA = 1e-9;
+    private static final double METRE_DELTA = 1e-6;
+
+    @Test
+    public void distance_newYorkToLondon() {
+        LatLng newYork = new LatLng(40.718119, -73.995667);
+        LatLng london = new LatLng(51.499981, -0.125313);
+        assertEquals(5565.842734813125, newYork.distance(london), 1e-6);
+    }
+
+    @Test
+    public void osRef_toLatLng() {
+        LatLng ll = new OSRef(651409.903, 313177.270).toLatLng();
+        assertEquals(52.657570301933156, ll.getLat(), DEGREE_DELTA);
+        assertEquals(1.717921580645096, ll.getLng(), DEGREE_DELTA);
+
+        ll.toWGS84();
+        assertEquals(52.65797838347956, ll.getLat(), DEGREE_DELTA);
+        assertEquals(1.7160667173266015, ll.getLng(), DEGREE_DELTA);
+    }
+
+    @Test
+    public void latLng_toOSRef() {
+        OSRef os = new LatLng(52.657570301933, 1.7179215806451).toOSRef();
+        assertEquals(651409.902802228, os.getEasting(), METRE_DELTA);
+        assertEquals(313177.26991869847, os.getNorthing(), METRE_DELTA);
+        assertEquals("TG514131", os.toSixFigureString());
+
+        LatLng wgs84 = new LatLng(52.657570301933, 1.7179215806451);
+        wgs84.toOSGB36();
+        OSRef osw = wgs84.toOSRef();
+        assertEquals(651537.6396498329, osw.getEasting(), METRE_DELTA);
+        assertEquals(313138.3768629308, osw.getNorthing(), METRE_DELTA);
+        assertEquals("TG515131", osw.toSixFigureString());
+    }
+
+    @Test
+    public void osRef_parseSixFigureString() {
+        OSRef os = new OSRef("TG514131");
+        assertEquals(651400.0, os.getEasting(), 0.0);
+        assertEquals(313100.0, os.getNorthing(), 0.0);
+    }
+
+    @Test
+    public void utmRef_toLatLng() {
+        LatLng ll = new UTMRef(456463.99, 3335334.05, 'E', 12).toLatLng();
+        assertEquals(-60.11669998435688, ll.getLat(), DEGREE_DELTA);
+        assertEquals(-111.78330000820505, ll.getLng(), DEGREE_DELTA);
+    }
+
+    @Test
+    public void latLng_toUTMRef() {
+        UTMRef utm = new LatLng(-60.1167, -111.7833).toUTMRef();
+        assertEquals(456463.99047664565, utm.getEasting(), METRE_DELTA);
+        assertEquals(3335334.047737888, utm.getNorthing(), METRE_DELTA);
+        assertEquals('E', utm.getLatZone());
+        assertEquals(12, utm.getLngZone());
+    }
+
+    @Test
+    public void utm_batchMatchesSinglePoint() {
+        double[] lat = {-60.1167, 52.657570301933, 40.718119, 69.6496};
+        double[] lng = {-111.7833, 1.7179215806451, -73.995667, 18.9560};
+        double[] eastings = new double[lat.length];
+        double[] northings = new double[lat.length];
+        int[] lngZones = new int[lat.length];
+        char[] latZones = new char[lat.length];
+        LatLng.toUTMRef(lat, lng, 0, lat.length, eastings, northings, lngZones, latZones);
+
+        for (int i = 0; i < lat.length; i++) {
+            UTMRef utm = new LatLng(lat[i], lng[i]).toUTMRef();
+            assertEquals(utm.getEasting(), eastings[i], 0.0);
+            assertEquals(utm.getNorthing(), northings[i], 0.0);
+            assertEquals(utm.getLngZone(), lngZones[i]);
+            assertEquals(utm.getLatZone(), latZones[i]);
+        }
+
+        double[] backLat = new double[lat.length];
+        double[] backLng = new double[lat.length];
+        UTMRef.toLatLng(eastings, northings, latZones, lngZones, 0, lat.length, backLat, backLng);
+        for (int i = 0; i < lat.length; i++) {
+            LatLng ll = new UTMRef(eastings[i], northings[i], latZones[i], lngZones[i]).toLatLng();
+            assertEquals(ll.getLat(), backLat[i], 0.0);
+            assertEquals(ll.getLng(), backLng[i], 0.0);
+            assertEquals(lat[i], backLat[i], 1e-7);
+            assertEquals(lng[i], backLng[i], 1e-7);
+        }
+    }
+
+    @Test
+    public void helmert_roundTripAndBatch() {
+        double[] lat = {52.657570301933, 51.5, 57.1, 50.2};
+        double[] lng = {1.7179215806451, -0.12, -4.5, -5.3};
+        double[] interleaved = new double[2 * lat.length];
+        for (int i = 0; i < lat.length; i++) {
+            interleaved[2 * i] = lat[i];
+            interleaved[2 * i + 1] = lng[i];
+        }
+        double[] shiftedLat = lat.clone();
+        double[] shiftedLng = lng.clone();
+        HelmertTransform.WGS84_TO_OSGB36.transform(shiftedLat, shiftedLng, 0, lat.length);
+        HelmertTransform.WGS84_TO_OSGB36.transform(interleaved, 0, lat.length);
+
+        for (int i = 0; i < lat.length; i++) {
+            LatLng ll = new LatLng(lat[i], lng[i]);
+            ll.toOSGB36();
+            assertEquals(ll.getLat(), shiftedLat[i], 0.0);
+            assertEquals(ll.getLng(), shiftedLng[i], 0.0);
+            assertEquals(ll.getLat(), interleaved[2 * i], 0.0);
+            assertEquals(ll.getLng(), interleaved[2 * i + 1], 0.0);
+
+            // The published parameters are only approximately inverse, within a few centimetres
+            ll.toWGS84();
+            assertEquals(lat[i], ll.getLat(), 1e-6);
+            assertEquals(lng[i], ll.getLng(), 1e-6);
+        }
+    }
+
+    @Test
+    public void pathLength_matchesPairwiseDistance() {
+        double[] lat = {40.718119, 51.499981, 52.657570301933, 48.8566};
+        double[] lng = {-73.995667, -0.125313, 1.7179215806451, 2.3522};
+        double[] cumulative = new double[lat.length];
+        double total = PathLength.cumulativeDistance(lat, lng, 0, lat.length, cumulative);
+
+        PathLength path = new PathLength();
+        PathLength.Total running = new PathLength.Total();
+        double expected = 0;
+        for (int i = 0; i < lat.length; i++) {
+            if (i > 0) {
+                expected += new LatLng(lat[i - 1], lng[i - 1]).distance(new LatLng(lat[i], lng[i]));
+            }
+            path.add(lat[i], lng[i]);
+            running.add(lat[i], lng[i]);
+            assertEquals(expected, cumulative[i], 1e-6);
+            assertEquals(cumulative[i], path.getDistance(i), 0.0);
+            assertEquals(cumulative[i], running.get(), 0.0);
+        }
+        assertEquals(expected, total, 1e-6);
+        assertEquals(total, path.getTotal(), 0.0);
+
+        assertEquals(0, path.indexAtDistance(-1));
+        assertEquals(0, path.indexAtDistance(cumulative[1] - 1));
+        assertEquals(1, path.indexAtDistance(cumulative[1]));
+        assertEquals(2, path.indexAtDistance(cumulative[2] + 1));
+        assertEquals(3, path.indexAtDistance(total + 1));
+    }
+
+    @Test
+    public void osGridCodec_parseAndFormat() {
+        double[] eastings = new double[4];
+        double[] northings = new double[4];
+        String refs = "TG514131, tg 5140 1317\nTG5140913177;SV";
+        int count = OSGridCodec.parseAll(refs, 0, refs.length(), eastings, northings, 0);
+        assertEquals(4, count);
+        assertEquals(651400.0, eastings[0], 0.0);
+        assertEquals(313100.0, northings[0], 0.0);
+        assertEquals(651400.0, eastings[1], 0.0);
+        assertEquals(313170.0, northings[1], 0.0);
+        assertEquals(651409.0, eastings[2], 0.0);
+        assertEquals(313177.0, northings[2], 0.0);
+        assertEquals(0.0, eastings[3], 0.0);
+        assertEquals(0.0, northings[3], 0.0);
+
+        StringBuilder sb = new StringBuilder();
+        OSGridCodec.format(651409.903, 313177.270, 10, sb);
+        assertEquals("TG5140913177", sb.toString());
+        char[] buffer = new char[10];
+        assertEquals(10, OSGridCodec.format(651409.903, 313177.270, 8, buffer, 0));
+        assertEquals("TG51401317", new String(buffer));
+        OSGridCodec.parse(buffer, 0, 10, eastings, northings, 0);
+        assertEquals(651400.0, eastings[0], 0.0);
+        assertEquals(313170.0, northings[0], 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void osGridCodec_rejectsOddNumberOfDigits() {
+        new OSRef("TG51413");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void osGridCodec_rejectsUnknownSquare() {
+        new OSRef("XG514131");
+    }
+}
@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "GPS-Tracker"
 include(":app")
+include(":geo-core")
+include(":benchmarks")
  
\ No newline at end of file